@@ -0,0 +1,227 @@
+/*
+ * Copyright (C) 2016 Charles Brophy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.granite.base;
+
+import java.util.SplittableRandom;
+
+/**
+ * Generates the deterministic corpora shared by the benchmarks, so that runs on different
+ * machines and commits measure the same inputs.
+ */
+public final class BenchmarkData {
+
+  public static final long SEED = 0x6772616E697465L;
+
+  // Latin-1 accents, Greek, Cyrillic and CJK ideographs
+  private static final char[][] UNICODE_RANGES = {
+      {'\u00C0', '\u00FF'},
+      {'\u0391', '\u03C9'},
+      {'\u0410', '\u044F'},
+      {'\u4E00', '\u4FFF'}
+  };
+
+  private static final String PUNCTUATION = ".,;:!?-()'";
+
+  private BenchmarkData() {
+  }
+
+  public enum Alphabet {
+    ASCII,
+    UNICODE
+  }
+
+  public static String word(
+      final SplittableRandom random,
+      final Alphabet alphabet,
+      final int length) {
+    final StringBuilder result = new StringBuilder(length);
+
+    for (int index = 0; index < length; index++) {
+      result.append(letter(random, alphabet));
+    }
+
+    return result.toString();
+  }
+
+  /**
+   * Builds prose-like text of mixed case words, digits and punctuation
+   *
+   * @param random The source of randomness
+   * @param alphabet The characters used for letters
+   * @param length The exact length of the text
+   * @return The text
+   */
+  public static String text(
+      final SplittableRandom random,
+      final Alphabet alphabet,
+      final int length) {
+    final StringBuilder result = new StringBuilder(length + 16);
+
+    while (result.length() < length) {
+      final int wordLength = 2 + random.nextInt(9);
+
+      for (int index = 0; index < wordLength; index++) {
+        final char letter = letter(random, alphabet);
+        result.append(random.nextInt(8) == 0 ? Character.toUpperCase(letter) : letter);
+      }
+
+      if (random.nextInt(10) == 0) {
+        result.append(random.nextInt(1000));
+      }
+
+      if (random.nextInt(6) == 0) {
+        result.append(PUNCTUATION.charAt(random.nextInt(PUNCTUATION.length())));
+      }
+
+      result.append(' ');
+    }
+
+    result.setLength(length);
+
+    return result.toString();
+  }
+
+  public static String[] texts(final Alphabet alphabet, final int length, final int count) {
+    final SplittableRandom random = new SplittableRandom(SEED);
+    final String[] result = new String[count];
+
+    for (int index = 0; index < count; index++) {
+      result[index] = text(random, alphabet, length);
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns a copy of the text with roughly the given fraction of characters substituted,
+   * inserted or deleted, as a stand-in for a misspelled or slightly edited value
+   *
+   * @param random The source of randomness
+   * @param alphabet The characters used for new letters
+   * @param text The original text
+   * @param editRate The fraction of positions to edit
+   * @return The edited text
+   */
+  public static String mutate(
+      final SplittableRandom random,
+      final Alphabet alphabet,
+      final String text,
+      final double editRate) {
+    final StringBuilder result = new StringBuilder(text.length() + 8);
+
+    for (int index = 0; index < text.length(); index++) {
+      if (random.nextDouble() >= editRate) {
+        result.append(text.charAt(index));
+        continue;
+      }
+
+      switch (random.nextInt(3)) {
+        case 0:
+          result.append(letter(random, alphabet));
+          break;
+        case 1:
+          result.append(letter(random, alphabet)).append(text.charAt(index));
+          break;
+        default:
+          break;
+      }
+    }
+
+    return result.toString();
+  }
+
+  /**
+   * Builds one CSV line. Quoted lines wrap every field in double quotes and embed delimiters,
+   * doubled quotes and padding inside the fields.
+   *
+   * @param random The source of randomness
+   * @param alphabet The characters used for letters
+   * @param fields The number of fields
+   * @param quoted Set to true for heavily quoted output
+   * @return The line without a terminator
+   */
+  public static String csvLine(
+      final SplittableRandom random,
+      final Alphabet alphabet,
+      final int fields,
+      final boolean quoted) {
+    final StringBuilder result = new StringBuilder(fields * 16);
+
+    for (int field = 0; field < fields; field++) {
+      if (field > 0) {
+        result.append(',');
+      }
+
+      final String value = word(random, alphabet, 1 + random.nextInt(12));
+
+      if (!quoted) {
+        result.append(value);
+        continue;
+      }
+
+      result.append("\" ").append(value);
+
+      if (random.nextBoolean()) {
+        result.append(", ").append(word(random, alphabet, 1 + random.nextInt(6)));
+      }
+
+      if (random.nextInt(4) == 0) {
+        result.append(" \"\"").append(word(random, alphabet, 3)).append("\"\"");
+      }
+
+      result.append(" \"");
+    }
+
+    return result.toString();
+  }
+
+  /**
+   * Builds a key/value line such as "key3=abc,key7=,key3=def" in which keys repeat and some
+   * values are empty
+   *
+   * @param random The source of randomness
+   * @param entries The number of entries
+   * @return The line
+   */
+  public static String keyValueLine(final SplittableRandom random, final int entries) {
+    final StringBuilder result = new StringBuilder(entries * 16);
+    final int keys = Math.max(1, entries * 3 / 4);
+
+    for (int entry = 0; entry < entries; entry++) {
+      if (entry > 0) {
+        result.append(',');
+      }
+
+      result.append("key").append(random.nextInt(keys)).append('=');
+
+      if (random.nextInt(8) != 0) {
+        result.append(word(random, Alphabet.ASCII, 2 + random.nextInt(10)));
+      }
+    }
+
+    return result.toString();
+  }
+
+  private static char letter(final SplittableRandom random, final Alphabet alphabet) {
+    if (alphabet == Alphabet.ASCII || random.nextInt(3) == 0) {
+      return (char) ('a' + random.nextInt(26));
+    }
+
+    final char[] range = UNICODE_RANGES[random.nextInt(UNICODE_RANGES.length)];
+
+    return (char) (range[0] + random.nextInt(range[1] - range[0] + 1));
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2016 Charles Brophy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.granite.base;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.granite.base.BenchmarkData.Alphabet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ContainsAnyBenchmark {
+
+  private static final int SAMPLES = 1024;
+
+  @Param({"4", "64", "5000"})
+  public int patterns;
+
+  @Param({"64", "1024"})
+  public int length;
+
+  @Param({"ASCII", "UNICODE"})
+  public Alphabet alphabet;
+
+  private String[] searchStrings;
+  private MultiStringMatcher matcher;
+
+  private String[] texts;
+  private int cursor;
+
+  @Setup
+  public void setup() {
+    final SplittableRandom random = new SplittableRandom(BenchmarkData.SEED);
+
+    searchStrings = new String[patterns];
+
+    for (int index = 0; index < patterns; index++) {
+      searchStrings[index] = BenchmarkData.word(random, alphabet, 5 + random.nextInt(4));
+    }
+
+    matcher = new MultiStringMatcher(searchStrings);
+    texts = BenchmarkData.texts(alphabet, length, SAMPLES);
+
+    // One text in eight contains a pattern, the rest are scanned to the end
+    for (int index = 0; index < SAMPLES; index += 8) {
+      final String pattern = searchStrings[random.nextInt(patterns)];
+      final int position = random.nextInt(length - pattern.length());
+
+      texts[index] = texts[index].substring(0, position) + pattern
+          + texts[index].substring(position + pattern.length());
+    }
+  }
+
+  @Benchmark
+  public boolean containsAny() {
+    return StringTools.containsAny(texts[next()], searchStrings);
+  }
+
+  @Benchmark
+  public boolean containsAnyMatcher() {
+    return StringTools.containsAny(texts[next()], matcher);
+  }
+
+  private int next() {
+    cursor = (cursor + 1) & (SAMPLES - 1);
+    return cursor;
+  }
+}
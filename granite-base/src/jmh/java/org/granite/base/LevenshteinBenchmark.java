@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2016 Charles Brophy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.granite.base;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.granite.base.BenchmarkData.Alphabet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class LevenshteinBenchmark {
+
+  private static final int SAMPLES = 1024;
+
+  @Param({"12", "80", "400"})
+  public int length;
+
+  @Param({"ASCII", "UNICODE"})
+  public Alphabet alphabet;
+
+  private String[] first;
+  private String[] second;
+  private int cursor;
+
+  @Setup
+  public void setup() {
+    final SplittableRandom random = new SplittableRandom(BenchmarkData.SEED);
+
+    first = BenchmarkData.texts(alphabet, length, SAMPLES);
+    second = new String[SAMPLES];
+
+    for (int index = 0; index < SAMPLES; index++) {
+      second[index] = BenchmarkData.mutate(random, alphabet, first[index], 0.1);
+    }
+  }
+
+  @Benchmark
+  public int levenshtein() {
+    final int index = next();
+    return StringTools.levenshtein(first[index], second[index]);
+  }
+
+  @Benchmark
+  public int levenshteinBounded() {
+    final int index = next();
+    return StringTools.levenshtein(first[index], second[index], 3);
+  }
+
+  private int next() {
+    cursor = (cursor + 1) & (SAMPLES - 1);
+    return cursor;
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2016 Charles Brophy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.granite.base;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.granite.base.BenchmarkData.Alphabet;
+import org.granite.io.DelimitedRecordParser;
+import org.granite.io.DelimitedRecordParser.RecordHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TextQualifiedSplitBenchmark {
+
+  private static final int SAMPLES = 1024;
+
+  @Param({"8", "64"})
+  public int fields;
+
+  @Param({"false", "true"})
+  public boolean quoted;
+
+  @Param({"ASCII", "UNICODE"})
+  public Alphabet alphabet;
+
+  private String[] lines;
+  private int cursor;
+
+  private final DelimitedRecordParser parser = new DelimitedRecordParser(',', '"', true);
+  private long consumed;
+  private final RecordHandler handler = record -> consumed += record.getFieldCount();
+
+  @Setup
+  public void setup() {
+    final SplittableRandom random = new SplittableRandom(BenchmarkData.SEED);
+
+    lines = new String[SAMPLES];
+
+    for (int index = 0; index < SAMPLES; index++) {
+      lines[index] = BenchmarkData.csvLine(random, alphabet, fields, quoted);
+    }
+  }
+
+  @Benchmark
+  public List<String> textQualifiedStringSplit() {
+    return StringTools.textQualifiedStringSplit(lines[next()], ',', '"', true);
+  }
+
+  @Benchmark
+  public long delimitedRecordParser() {
+    parser.parse(lines[next()], handler);
+    return consumed;
+  }
+
+  private int next() {
+    cursor = (cursor + 1) & (SAMPLES - 1);
+    return cursor;
+  }
+}
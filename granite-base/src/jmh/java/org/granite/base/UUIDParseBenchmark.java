@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2016 Charles Brophy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.granite.base;
+
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class UUIDParseBenchmark {
+
+  private static final int SAMPLES = 1024;
+
+  @Param({"0", "10", "50"})
+  public int malformedPercent;
+
+  private String[] values;
+  private int cursor;
+
+  @Setup
+  public void setup() {
+    final SplittableRandom random = new SplittableRandom(BenchmarkData.SEED);
+
+    values = new String[SAMPLES];
+
+    for (int index = 0; index < SAMPLES; index++) {
+      final String value = new UUID(random.nextLong(), random.nextLong()).toString();
+
+      if (random.nextInt(100) >= malformedPercent) {
+        values[index] = value;
+        continue;
+      }
+
+      // Truncated, a stray character or a missing dash, as seen in dirty feeds
+      switch (random.nextInt(3)) {
+        case 0:
+          values[index] = value.substring(0, 30);
+          break;
+        case 1:
+          values[index] = value.substring(0, 20) + 'x' + value.substring(21);
+          break;
+        default:
+          values[index] = value.replaceFirst("-", "");
+          break;
+      }
+    }
+  }
+
+  @Benchmark
+  public UUID tryParse() {
+    return UUIDTools.tryParse(values[next()]);
+  }
+
+  @Benchmark
+  public UUID fromStringCatching() {
+    try {
+      return UUID.fromString(values[next()]);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private int next() {
+    cursor = (cursor + 1) & (SAMPLES - 1);
+    return cursor;
+  }
+}
@@ -0,0 +1,71 @@
+package org.granite.collections;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.granite.base.BenchmarkData;
+import org.granite.base.BenchmarkData.Alphabet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class FrequencyCounterBenchmark {
+
+  private static final int TOKENS = 100000;
+
+  @Param({"1000", "100000"})
+  public int vocabulary;
+
+  private List<String> tokens;
+
+  @Setup
+  public void setup() {
+    final SplittableRandom random = new SplittableRandom(BenchmarkData.SEED);
+    final String[] words = new String[vocabulary];
+
+    for (int index = 0; index < vocabulary; index++) {
+      words[index] = BenchmarkData.word(random, Alphabet.ASCII, 3 + random.nextInt(8));
+    }
+
+    // Skewed towards the first words, as token streams are
+    final String[] stream = new String[TOKENS];
+
+    for (int index = 0; index < TOKENS; index++) {
+      final double skewed = Math.pow(random.nextDouble(), 3.0);
+      stream[index] = words[(int) (skewed * vocabulary)];
+    }
+
+    tokens = Arrays.asList(stream);
+  }
+
+  @Benchmark
+  public Map<String, Integer> frequencyMap() {
+    final Map<String, Integer> frequencyMap = new HashMap<>();
+    MapTools.updateFrequencyMap(tokens, frequencyMap, 1);
+    return frequencyMap;
+  }
+
+  @Benchmark
+  public FrequencyCounter<String> frequencyCounter() {
+    final FrequencyCounter<String> counter = new FrequencyCounter<>();
+    MapTools.updateFrequencyMap(tokens, counter, 1L);
+    return counter;
+  }
+}
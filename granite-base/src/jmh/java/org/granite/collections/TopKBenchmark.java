@@ -0,0 +1,68 @@
+package org.granite.collections;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.granite.base.BenchmarkData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TopKBenchmark {
+
+  @Param({"10", "100", "1000"})
+  public int k;
+
+  @Param({"1000000"})
+  public int items;
+
+  private Double[] scores;
+
+  @Setup
+  public void setup() {
+    final SplittableRandom random = new SplittableRandom(BenchmarkData.SEED);
+
+    scores = new Double[items];
+
+    for (int index = 0; index < items; index++) {
+      scores[index] = random.nextDouble();
+    }
+  }
+
+  @Benchmark
+  public List<Double> topK() {
+    final TopK<Double> topK = new TopK<>(k, Comparator.naturalOrder());
+
+    for (Double score : scores) {
+      topK.offer(score);
+    }
+
+    return topK.drainSorted();
+  }
+
+  @Benchmark
+  public EvictingTreeSet<Double> evictingTreeSet() {
+    final EvictingTreeSet<Double> set = new EvictingTreeSet<>(k, true);
+
+    for (Double score : scores) {
+      set.add(score);
+    }
+
+    return set;
+  }
+}
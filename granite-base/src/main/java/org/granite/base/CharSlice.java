@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2016 Charles Brophy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.granite.base;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+
+/**
+ * A read-only view of a range of another CharSequence. Creating a slice, or a slice of a slice,
+ * never copies characters; only {@link #toString()} does. A slice reflects later changes to a
+ * mutable source such as a StringBuilder.
+ */
+public final class CharSlice implements CharSequence {
+
+  private final CharSequence source;
+  private final int offset;
+  private final int length;
+
+  public CharSlice(final CharSequence source, final int start, final int end) {
+    checkNotNull(source, "source");
+    checkPositionIndexes(start, end, source.length());
+
+    this.source = source;
+    this.offset = start;
+    this.length = end - start;
+  }
+
+  @Override
+  public int length() {
+    return length;
+  }
+
+  @Override
+  public char charAt(final int index) {
+    checkElementIndex(index, length, "index");
+    return source.charAt(offset + index);
+  }
+
+  @Override
+  public CharSlice subSequence(final int start, final int end) {
+    checkPositionIndexes(start, end, length);
+    return new CharSlice(source, offset + start, offset + end);
+  }
+
+  public boolean contentEquals(final CharSequence other) {
+    if (other == null || other.length() != length) {
+      return false;
+    }
+
+    for (int index = 0; index < length; index++) {
+      if (source.charAt(offset + index) != other.charAt(index)) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  @Override
+  public String toString() {
+    if (source instanceof String) {
+      return ((String) source).substring(offset, offset + length);
+    }
+
+    return new StringBuilder(length).append(source, offset, offset + length).toString();
+  }
+}
@@ -0,0 +1,397 @@
+/*
+ * Copyright (C) 2016 Charles Brophy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.granite.base;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Levenshtein distance using the Myers/Hyyro bit-parallel algorithm.
+ *
+ * After stripping the common prefix and suffix, the shorter string becomes the bit pattern: a
+ * single 64-bit word handles patterns up to 64 characters and longer ones are processed in
+ * blocks of words. Bounded calls that do not fit in one word use a banded two-row dynamic program
+ * that only touches cells within the distance threshold.
+ */
+public final class EditDistance implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private static final int WORD_SIZE = 64;
+  private static final int ASCII_SIZE = 128;
+
+  private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+  private EditDistance() {
+  }
+
+  public static int levenshtein(final CharSequence first, final CharSequence second) {
+    checkNotNull(first, "first");
+    checkNotNull(second, "second");
+
+    return compute(first, second, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Computes the distance, giving up as soon as it is certain to exceed maxDistance
+   *
+   * @param first The first string
+   * @param second The second string
+   * @param maxDistance The largest distance of interest
+   * @return The distance, or -1 if it is greater than maxDistance
+   */
+  public static int levenshtein(
+      final CharSequence first,
+      final CharSequence second,
+      final int maxDistance) {
+    checkNotNull(first, "first");
+    checkNotNull(second, "second");
+    checkArgument(maxDistance >= 0, "maxDistance cannot be negative");
+
+    return compute(first, second, maxDistance);
+  }
+
+  private static int compute(
+      final CharSequence first,
+      final CharSequence second,
+      final int maxDistance) {
+
+    if (Math.abs(first.length() - second.length()) > maxDistance) {
+      return -1;
+    }
+
+    final boolean firstShorter = first.length() <= second.length();
+
+    final CharSequence pattern = firstShorter ? first : second;
+    final CharSequence text = firstShorter ? second : first;
+
+    int start = 0;
+    int patternEnd = pattern.length();
+    int textEnd = text.length();
+
+    while (start < patternEnd && pattern.charAt(start) == text.charAt(start)) {
+      start++;
+    }
+
+    while (patternEnd > start && pattern.charAt(patternEnd - 1) == text.charAt(textEnd - 1)) {
+      patternEnd--;
+      textEnd--;
+    }
+
+    final int patternLength = patternEnd - start;
+    final int textLength = textEnd - start;
+
+    if (patternLength == 0) {
+      return textLength <= maxDistance ? textLength : -1;
+    }
+
+    if (patternLength <= WORD_SIZE) {
+      return singleWord(pattern, text, start, patternLength, textLength, maxDistance);
+    }
+
+    if (maxDistance < patternLength) {
+      return banded(pattern, text, start, patternLength, textLength, maxDistance);
+    }
+
+    final int distance = blocked(pattern, text, start, patternLength, textLength);
+
+    return distance <= maxDistance ? distance : -1;
+  }
+
+  private static int singleWord(
+      final CharSequence pattern,
+      final CharSequence text,
+      final int start,
+      final int patternLength,
+      final int textLength,
+      final int maxDistance) {
+
+    final Scratch scratch = SCRATCH.get();
+    final long[] ascii = scratch.ascii;
+
+    for (int index = 0; index < patternLength; index++) {
+      final char current = pattern.charAt(start + index);
+
+      if (current < ASCII_SIZE) {
+        ascii[current] |= 1L << index;
+      } else {
+        scratch.addExtended(current, 1L << index);
+      }
+    }
+
+    final long last = 1L << (patternLength - 1);
+
+    long vp = -1L;
+    long vn = 0L;
+    int distance = patternLength;
+    int result = -1;
+
+    try {
+      for (int index = 0; index < textLength; index++) {
+        final char current = text.charAt(start + index);
+        final long pm = current < ASCII_SIZE ? ascii[current] : scratch.extended(current);
+
+        final long d0 = (((pm & vp) + vp) ^ vp) | pm | vn;
+        long hp = vn | ~(d0 | vp);
+        long hn = d0 & vp;
+
+        if ((hp & last) != 0) {
+          distance++;
+        }
+
+        if ((hn & last) != 0) {
+          distance--;
+        }
+
+        // Every remaining column can lower the distance by at most one
+        if (distance - (textLength - index - 1) > maxDistance) {
+          return -1;
+        }
+
+        hp = (hp << 1) | 1L;
+        hn = hn << 1;
+
+        vp = hn | ~(d0 | hp);
+        vn = hp & d0;
+      }
+
+      result = distance <= maxDistance ? distance : -1;
+
+    } finally {
+      for (int index = 0; index < patternLength; index++) {
+        final char current = pattern.charAt(start + index);
+
+        if (current < ASCII_SIZE) {
+          ascii[current] = 0L;
+        }
+      }
+
+      scratch.extendedCount = 0;
+    }
+
+    return result;
+  }
+
+  private static int blocked(
+      final CharSequence pattern,
+      final CharSequence text,
+      final int start,
+      final int patternLength,
+      final int textLength) {
+
+    final int words = (patternLength + WORD_SIZE - 1) / WORD_SIZE;
+
+    final long[] ascii = new long[ASCII_SIZE * words];
+    final Scratch extended = new Scratch(words);
+
+    for (int index = 0; index < patternLength; index++) {
+      final char current = pattern.charAt(start + index);
+      final int word = index / WORD_SIZE;
+      final long bit = 1L << (index % WORD_SIZE);
+
+      if (current < ASCII_SIZE) {
+        ascii[current * words + word] |= bit;
+      } else {
+        extended.addExtended(current, word, bit);
+      }
+    }
+
+    final long[] vp = new long[words];
+    final long[] vn = new long[words];
+
+    Arrays.fill(vp, -1L);
+
+    final long last = 1L << ((patternLength - 1) % WORD_SIZE);
+
+    int distance = patternLength;
+
+    for (int index = 0; index < textLength; index++) {
+      final char current = text.charAt(start + index);
+
+      final long[] masks;
+      final int offset;
+
+      if (current < ASCII_SIZE) {
+        masks = ascii;
+        offset = current * words;
+      } else {
+        final int slot = extended.find(current);
+        masks = slot < 0 ? null : extended.extendedMasks;
+        offset = slot * words;
+      }
+
+      long hpCarry = 1L;
+      long hnCarry = 0L;
+
+      for (int word = 0; word < words; word++) {
+        final long pm = masks == null ? 0L : masks[offset + word];
+
+        final long x = pm | hnCarry;
+        final long d0 = (((x & vp[word]) + vp[word]) ^ vp[word]) | x | vn[word];
+
+        long hp = vn[word] | ~(d0 | vp[word]);
+        long hn = d0 & vp[word];
+
+        if (word == words - 1) {
+          if ((hp & last) != 0) {
+            distance++;
+          }
+
+          if ((hn & last) != 0) {
+            distance--;
+          }
+        }
+
+        final long hpCarryIn = hpCarry;
+        hpCarry = hp >>> 63;
+        hp = (hp << 1) | hpCarryIn;
+
+        final long hnCarryIn = hnCarry;
+        hnCarry = hn >>> 63;
+        hn = (hn << 1) | hnCarryIn;
+
+        vp[word] = hn | ~(d0 | hp);
+        vn[word] = hp & d0;
+      }
+    }
+
+    return distance;
+  }
+
+  private static int banded(
+      final CharSequence pattern,
+      final CharSequence text,
+      final int start,
+      final int patternLength,
+      final int textLength,
+      final int maxDistance) {
+
+    final int outOfBand = maxDistance + 1;
+
+    final Scratch scratch = SCRATCH.get();
+    int[] previous = scratch.rows(0, textLength + 1);
+    int[] current = scratch.rows(1, textLength + 1);
+
+    for (int column = 0; column <= textLength; column++) {
+      previous[column] = column <= maxDistance ? column : outOfBand;
+    }
+
+    for (int row = 1; row <= patternLength; row++) {
+      final int low = Math.max(1, row - maxDistance);
+      final int high = Math.min(textLength, row + maxDistance);
+
+      current[low - 1] = low == 1 && row <= maxDistance ? row : outOfBand;
+
+      int rowMinimum = current[low - 1];
+
+      final char patternChar = pattern.charAt(start + row - 1);
+
+      for (int column = low; column <= high; column++) {
+        final int substitution = previous[column - 1]
+            + (patternChar == text.charAt(start + column - 1) ? 0 : 1);
+
+        final int value = Math.min(
+            Math.min(substitution, previous[column] + 1),
+            Math.min(current[column - 1] + 1, outOfBand));
+
+        current[column] = value;
+        rowMinimum = Math.min(rowMinimum, value);
+      }
+
+      if (high < textLength) {
+        current[high + 1] = outOfBand;
+      }
+
+      if (rowMinimum > maxDistance) {
+        return -1;
+      }
+
+      final int[] swap = previous;
+      previous = current;
+      current = swap;
+    }
+
+    return previous[textLength] <= maxDistance ? previous[textLength] : -1;
+  }
+
+  private static final class Scratch {
+
+    private final long[] ascii = new long[ASCII_SIZE];
+    private final int words;
+
+    private char[] extendedChars = new char[8];
+    private long[] extendedMasks = new long[8];
+    private int extendedCount;
+
+    private final int[][] rows = new int[2][];
+
+    private Scratch() {
+      this(1);
+    }
+
+    private Scratch(final int words) {
+      this.words = words;
+      this.extendedMasks = new long[extendedChars.length * words];
+    }
+
+    private void addExtended(final char value, final long bit) {
+      addExtended(value, 0, bit);
+    }
+
+    private void addExtended(final char value, final int word, final long bit) {
+      int slot = find(value);
+
+      if (slot < 0) {
+        if (extendedCount == extendedChars.length) {
+          extendedChars = Arrays.copyOf(extendedChars, extendedCount << 1);
+          extendedMasks = Arrays.copyOf(extendedMasks, (extendedCount << 1) * words);
+        }
+
+        slot = extendedCount++;
+        extendedChars[slot] = value;
+        Arrays.fill(extendedMasks, slot * words, (slot + 1) * words, 0L);
+      }
+
+      extendedMasks[slot * words + word] |= bit;
+    }
+
+    private int find(final char value) {
+      for (int slot = 0; slot < extendedCount; slot++) {
+        if (extendedChars[slot] == value) {
+          return slot;
+        }
+      }
+
+      return -1;
+    }
+
+    private long extended(final char value) {
+      final int slot = extendedCount == 0 ? -1 : find(value);
+      return slot < 0 ? 0L : extendedMasks[slot];
+    }
+
+    private int[] rows(final int index, final int length) {
+      if (rows[index] == null || rows[index].length < length) {
+        rows[index] = new int[Math.max(length, 64)];
+      }
+
+      return rows[index];
+    }
+  }
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright (C) 2016 Charles Brophy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.granite.base;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+
+import com.google.common.base.CharMatcher;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Sets;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Parses delimited key/value entries such as "k1=v1,k2=v2" in a single pass over the raw
+ * characters.
+ *
+ * Entry and key/value boundaries are found by index and only the trimmed keys and values are
+ * ever copied out of the source. Entries are split on the first key/value delimiter; entries
+ * that are blank, have no delimiter or have an empty key are skipped and later duplicates of a
+ * key replace earlier ones. Results are ImmutableMaps that iterate in the order of the entries
+ * that were kept. Instances are immutable and safe to share between threads.
+ */
+public final class KeyValueParser {
+
+  /**
+   * Parses "key=value" lines, skipping lines whose first non-blank character is '#', as used
+   * by configuration files and resources
+   */
+  public static final KeyValueParser CONFIG_LINES = new KeyValueParser(
+      CharMatcher.anyOf("\r\n"),
+      CharMatcher.is('='),
+      false,
+      false).skippingComments(CharMatcher.is('#'));
+
+  private final CharMatcher entryDelimiter;
+  private final CharMatcher keyValueDelimiter;
+  private final boolean omitEmptyValues;
+  private final boolean dedupeValues;
+  private final StringPool valuePool;
+  private final CharMatcher commentStart;
+
+  /**
+   * Constructor
+   *
+   * @param entryDelimiter Separates entries, e.g. a line break or comma
+   * @param keyValueDelimiter Separates each key from its value
+   * @param omitEmptyValues Set to true to skip entries with an empty value
+   * @param dedupeValues Set to true to share one instance between equal values of a parse
+   */
+  public KeyValueParser(
+      final CharMatcher entryDelimiter,
+      final CharMatcher keyValueDelimiter,
+      final boolean omitEmptyValues,
+      final boolean dedupeValues) {
+    this.entryDelimiter = checkNotNull(entryDelimiter, "entryDelimiter");
+    this.keyValueDelimiter = checkNotNull(keyValueDelimiter, "keyValueDelimiter");
+    this.omitEmptyValues = omitEmptyValues;
+    this.dedupeValues = dedupeValues;
+    this.valuePool = null;
+    this.commentStart = CharMatcher.none();
+  }
+
+  /**
+   * Constructor
+   *
+   * @param entryDelimiter Separates entries, e.g. a line break or comma
+   * @param keyValueDelimiter Separates each key from its value
+   * @param omitEmptyValues Set to true to skip entries with an empty value
+   * @param valuePool Supplies shared instances for values, which are only copied out of the
+   *     source when the pool does not already hold them
+   */
+  public KeyValueParser(
+      final CharMatcher entryDelimiter,
+      final CharMatcher keyValueDelimiter,
+      final boolean omitEmptyValues,
+      final StringPool valuePool) {
+    this.entryDelimiter = checkNotNull(entryDelimiter, "entryDelimiter");
+    this.keyValueDelimiter = checkNotNull(keyValueDelimiter, "keyValueDelimiter");
+    this.omitEmptyValues = omitEmptyValues;
+    this.dedupeValues = true;
+    this.valuePool = checkNotNull(valuePool, "valuePool");
+    this.commentStart = CharMatcher.none();
+  }
+
+  private KeyValueParser(final KeyValueParser parser, final CharMatcher commentStart) {
+    this.entryDelimiter = parser.entryDelimiter;
+    this.keyValueDelimiter = parser.keyValueDelimiter;
+    this.omitEmptyValues = parser.omitEmptyValues;
+    this.dedupeValues = parser.dedupeValues;
+    this.valuePool = parser.valuePool;
+    this.commentStart = commentStart;
+  }
+
+  /**
+   * Returns a parser that also skips entries whose first non-blank character is matched
+   *
+   * @param commentStart The characters that start a comment
+   * @return The new parser
+   */
+  public KeyValueParser skippingComments(final CharMatcher commentStart) {
+    return new KeyValueParser(this, checkNotNull(commentStart, "commentStart"));
+  }
+
+  public Map<String, String> parse(final CharSequence text) {
+    return parse(text, Function.identity());
+  }
+
+  public Map<String, String> parse(final char[] buffer, final int offset, final int length) {
+    return parse(buffer, offset, length, Function.identity());
+  }
+
+  public <V> Map<String, V> parse(
+      final char[] buffer,
+      final int offset,
+      final int length,
+      final Function<String, V> valueConverter) {
+    checkNotNull(buffer, "buffer");
+    checkPositionIndexes(offset, offset + length, buffer.length);
+
+    return parse(CharBuffer.wrap(buffer, offset, length), valueConverter);
+  }
+
+  /**
+   * Parses the text, converting each value
+   *
+   * @param text The entries to parse
+   * @param valueConverter Converts each value; it may not return null
+   * @return An immutable map of the parsed entries
+   */
+  public <V> Map<String, V> parse(
+      final CharSequence text,
+      final Function<String, V> valueConverter) {
+    checkNotNull(text, "text");
+    checkNotNull(valueConverter, "valueConverter");
+
+    String[] keys = new String[16];
+    String[] values = new String[16];
+    int count = 0;
+
+    final HashMap<String, String> canonicalValues = dedupeValues && valuePool == null
+        ? new HashMap<>()
+        : null;
+
+    final int length = text.length();
+    int entryStart = 0;
+
+    while (entryStart < length) {
+      int entryEnd = entryStart;
+      int split = -1;
+
+      while (entryEnd < length) {
+        final char current = text.charAt(entryEnd);
+
+        if (entryDelimiter.matches(current)) {
+          break;
+        }
+
+        if (split < 0 && keyValueDelimiter.matches(current)) {
+          split = entryEnd;
+        }
+
+        entryEnd++;
+      }
+
+      final int firstChar = trimStart(text, entryStart, entryEnd);
+
+      if (split >= 0
+          && !(firstChar < entryEnd && commentStart.matches(text.charAt(firstChar)))) {
+        final int keyStart = trimStart(text, entryStart, split);
+        final int keyEnd = trimEnd(text, keyStart, split);
+        final int valueStart = trimStart(text, split + 1, entryEnd);
+        final int valueEnd = trimEnd(text, valueStart, entryEnd);
+
+        if (keyEnd > keyStart && (valueEnd > valueStart || !omitEmptyValues)) {
+          if (count == keys.length) {
+            keys = Arrays.copyOf(keys, count << 1);
+            values = Arrays.copyOf(values, count << 1);
+          }
+
+          String value = valuePool != null
+              ? valuePool.intern(text, valueStart, valueEnd)
+              : slice(text, valueStart, valueEnd);
+
+          if (canonicalValues != null) {
+            final String existing = canonicalValues.putIfAbsent(value, value);
+            value = existing == null ? value : existing;
+          }
+
+          keys[count] = slice(text, keyStart, keyEnd);
+          values[count] = value;
+          count++;
+        }
+      }
+
+      entryStart = entryEnd + 1;
+    }
+
+    // Later duplicates win, so walk backwards and drop the earlier entries they replace
+    final Set<String> seen = Sets.newHashSetWithExpectedSize(count);
+    final boolean[] replaced = new boolean[count];
+
+    for (int index = count - 1; index >= 0; index--) {
+      replaced[index] = !seen.add(keys[index]);
+    }
+
+    final ImmutableMap.Builder<String, V> result =
+        ImmutableMap.builderWithExpectedSize(seen.size());
+
+    for (int index = 0; index < count; index++) {
+      if (replaced[index]) {
+        continue;
+      }
+
+      final V value = valueConverter.apply(values[index]);
+
+      checkArgument(value != null, "Failed to convert value for key: %s", keys[index]);
+
+      result.put(keys[index], value);
+    }
+
+    return result.build();
+  }
+
+  private static int trimStart(final CharSequence text, final int start, final int end) {
+    int index = start;
+
+    while (index < end && text.charAt(index) <= ' ') {
+      index++;
+    }
+
+    return index;
+  }
+
+  private static int trimEnd(final CharSequence text, final int start, final int end) {
+    int index = end;
+
+    while (index > start && text.charAt(index - 1) <= ' ') {
+      index--;
+    }
+
+    return index;
+  }
+
+  private static String slice(final CharSequence text, final int start, final int end) {
+    if (start == end) {
+      return "";
+    }
+
+    if (text instanceof String) {
+      return ((String) text).substring(start, end);
+    }
+
+    if (text instanceof CharBuffer && ((CharBuffer) text).hasArray()) {
+      final CharBuffer buffer = (CharBuffer) text;
+      return new String(buffer.array(), buffer.arrayOffset() + buffer.position() + start,
+          end - start);
+    }
+
+    return text.subSequence(start, end).toString();
+  }
+}
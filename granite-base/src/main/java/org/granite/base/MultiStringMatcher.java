@@ -0,0 +1,348 @@
+/*
+ * Copyright (C) 2016 Charles Brophy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.granite.base;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * A precompiled Aho-Corasick automaton that finds any number of patterns in a single pass over
+ * the text.
+ *
+ * The characters used by the patterns are compressed into a small alphabet and the automaton is
+ * stored as a dense state-by-character transition table, so every text character costs one
+ * table lookup regardless of how many patterns there are. Empty and duplicate patterns are
+ * ignored. Instances are immutable and safe to share between threads.
+ */
+public final class MultiStringMatcher implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private static final int ASCII_SIZE = 128;
+  private static final int ROOT = 0;
+  private static final int NONE = -1;
+
+  private final boolean ignoreCase;
+  private final String[] patterns;
+
+  // Character classes: 0 is every character that is not part of a pattern
+  private final int[] asciiClasses = new int[ASCII_SIZE];
+  private final char[] extendedChars;
+  private final int[] extendedClasses;
+  private final int alphabetSize;
+
+  private final int[] transitions;
+  private final int[] statePattern;
+  private final int[] dictionaryLink;
+  private final boolean[] accepting;
+
+  public MultiStringMatcher(final String... patterns) {
+    this(ImmutableList.copyOf(checkNotNull(patterns, "patterns")), false);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param patterns The strings to search for
+   * @param ignoreCase Set to true to match without regard to case
+   */
+  public MultiStringMatcher(final Collection<String> patterns, final boolean ignoreCase) {
+    checkNotNull(patterns, "patterns");
+
+    this.ignoreCase = ignoreCase;
+
+    final LinkedHashSet<String> unique = new LinkedHashSet<>();
+
+    for (String pattern : patterns) {
+      checkNotNull(pattern, "pattern");
+
+      if (!pattern.isEmpty()) {
+        unique.add(ignoreCase ? fold(pattern) : pattern);
+      }
+    }
+
+    this.patterns = unique.toArray(new String[0]);
+
+    // Build the alphabet
+    final TreeSet<Character> extended = new TreeSet<>();
+    int classCount = 1;
+
+    for (String pattern : this.patterns) {
+      for (int index = 0; index < pattern.length(); index++) {
+        final char current = pattern.charAt(index);
+
+        if (current >= ASCII_SIZE) {
+          extended.add(current);
+        } else if (asciiClasses[current] == 0) {
+          asciiClasses[current] = classCount++;
+        }
+      }
+    }
+
+    if (ignoreCase) {
+      for (char upper = 'A'; upper <= 'Z'; upper++) {
+        asciiClasses[upper] = asciiClasses[Character.toLowerCase(upper)];
+      }
+    }
+
+    extendedChars = new char[extended.size()];
+    extendedClasses = new int[extended.size()];
+
+    int slot = 0;
+
+    for (Character current : extended) {
+      extendedChars[slot] = current;
+      extendedClasses[slot++] = classCount++;
+    }
+
+    alphabetSize = classCount;
+
+    // Build the trie
+    int stateCount = 1;
+    int[] table = new int[alphabetSize * 16];
+    int[] patternAt = new int[16];
+
+    Arrays.fill(table, NONE);
+    Arrays.fill(patternAt, NONE);
+
+    for (int patternIndex = 0; patternIndex < this.patterns.length; patternIndex++) {
+      final String pattern = this.patterns[patternIndex];
+
+      int state = ROOT;
+
+      for (int index = 0; index < pattern.length(); index++) {
+        final int transition = state * alphabetSize + classOf(pattern.charAt(index));
+
+        if (table[transition] == NONE) {
+          if ((stateCount + 1) * alphabetSize > table.length) {
+            final int oldLength = table.length;
+            table = Arrays.copyOf(table, oldLength << 1);
+            Arrays.fill(table, oldLength, table.length, NONE);
+          }
+
+          if (stateCount == patternAt.length) {
+            patternAt = Arrays.copyOf(patternAt, stateCount << 1);
+            Arrays.fill(patternAt, stateCount, patternAt.length, NONE);
+          }
+
+          table[transition] = stateCount++;
+        }
+
+        state = table[transition];
+      }
+
+      patternAt[state] = patternIndex;
+    }
+
+    transitions = Arrays.copyOf(table, stateCount * alphabetSize);
+    statePattern = Arrays.copyOf(patternAt, stateCount);
+    dictionaryLink = new int[stateCount];
+    accepting = new boolean[stateCount];
+
+    // Breadth-first failure links, completing the transition table as a DFA
+    final int[] failure = new int[stateCount];
+    final int[] queue = new int[stateCount];
+    int head = 0;
+    int tail = 0;
+
+    dictionaryLink[ROOT] = NONE;
+
+    for (int symbol = 0; symbol < alphabetSize; symbol++) {
+      final int next = transitions[symbol];
+
+      if (next == NONE) {
+        transitions[symbol] = ROOT;
+      } else {
+        failure[next] = ROOT;
+        dictionaryLink[next] = NONE;
+        accepting[next] = statePattern[next] != NONE;
+        queue[tail++] = next;
+      }
+    }
+
+    while (head < tail) {
+      final int state = queue[head++];
+
+      for (int symbol = 0; symbol < alphabetSize; symbol++) {
+        final int transition = state * alphabetSize + symbol;
+        final int next = transitions[transition];
+        final int fallback = transitions[failure[state] * alphabetSize + symbol];
+
+        if (next == NONE) {
+          transitions[transition] = fallback;
+          continue;
+        }
+
+        failure[next] = fallback;
+        dictionaryLink[next] = statePattern[fallback] != NONE
+            ? fallback
+            : dictionaryLink[fallback];
+        accepting[next] = statePattern[next] != NONE || dictionaryLink[next] != NONE;
+        queue[tail++] = next;
+      }
+    }
+  }
+
+  public int getPatternCount() {
+    return patterns.length;
+  }
+
+  /**
+   * The pattern for an index reported to a {@link MatchHandler}. Patterns are lower-cased when
+   * the matcher ignores case.
+   *
+   * @param patternIndex The pattern index
+   * @return The pattern
+   */
+  public String getPattern(final int patternIndex) {
+    checkElementIndex(patternIndex, patterns.length, "patternIndex");
+    return patterns[patternIndex];
+  }
+
+  public boolean isIgnoreCase() {
+    return ignoreCase;
+  }
+
+  public boolean containsAny(final CharSequence text) {
+    checkNotNull(text, "text");
+
+    int state = ROOT;
+
+    for (int index = 0; index < text.length(); index++) {
+      state = transitions[state * alphabetSize + classOf(text.charAt(index))];
+
+      if (accepting[state]) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * Finds every pattern occurrence, including overlapping ones
+   *
+   * @param text The text to search
+   * @return The matched patterns, ordered by the position at which each match ends
+   */
+  public List<String> findAll(final CharSequence text) {
+    final List<String> result = new ArrayList<>();
+
+    findAll(text, (patternIndex, start, end) -> {
+      result.add(patterns[patternIndex]);
+      return true;
+    });
+
+    return result;
+  }
+
+  /**
+   * Reports every pattern occurrence to the handler as it is found
+   *
+   * @param text The text to search
+   * @param handler Receives each match and may stop the search by returning false
+   * @return The number of matches reported
+   */
+  public int findAll(final CharSequence text, final MatchHandler handler) {
+    checkNotNull(text, "text");
+    checkNotNull(handler, "handler");
+
+    int count = 0;
+    int state = ROOT;
+
+    for (int index = 0; index < text.length(); index++) {
+      state = transitions[state * alphabetSize + classOf(text.charAt(index))];
+
+      if (!accepting[state]) {
+        continue;
+      }
+
+      int output = statePattern[state] != NONE ? state : dictionaryLink[state];
+
+      while (output != NONE) {
+        final int patternIndex = statePattern[output];
+
+        count++;
+
+        if (!handler.onMatch(patternIndex, index + 1 - patterns[patternIndex].length(),
+            index + 1)) {
+          return count;
+        }
+
+        output = dictionaryLink[output];
+      }
+    }
+
+    return count;
+  }
+
+  private int classOf(final char value) {
+    if (value < ASCII_SIZE) {
+      return asciiClasses[value];
+    }
+
+    final char folded = ignoreCase ? fold(value) : value;
+
+    if (folded < ASCII_SIZE) {
+      return asciiClasses[folded];
+    }
+
+    if (extendedChars.length == 0) {
+      return 0;
+    }
+
+    final int slot = Arrays.binarySearch(extendedChars, folded);
+
+    return slot < 0 ? 0 : extendedClasses[slot];
+  }
+
+  private static String fold(final String value) {
+    final char[] folded = new char[value.length()];
+
+    for (int index = 0; index < folded.length; index++) {
+      folded[index] = fold(value.charAt(index));
+    }
+
+    return new String(folded);
+  }
+
+  private static char fold(final char value) {
+    return Character.toLowerCase(Character.toUpperCase(value));
+  }
+
+  @FunctionalInterface
+  public interface MatchHandler {
+
+    /**
+     * Called for each match
+     *
+     * @param patternIndex The index of the matched pattern
+     * @param start The inclusive start of the match in the text
+     * @param end The exclusive end of the match in the text
+     * @return True to continue searching or false to stop
+     */
+    boolean onMatch(int patternIndex, int start, int end);
+  }
+}
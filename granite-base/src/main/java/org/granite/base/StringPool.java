@@ -0,0 +1,237 @@
+/*
+ * Copyright (C) 2016 Charles Brophy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.granite.base;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * A bounded, thread-safe pool that hands out one shared String instance for equal character
+ * content, so that repeated low-cardinality values (country codes, statuses, currencies) are
+ * held once on the heap.
+ *
+ * Lookups take a CharSequence or char[] range and compare it in place, so a value that is
+ * already pooled is never materialized as a new String. The pool is split into independently
+ * locked stripes of small set-associative buckets; when a bucket is full its oldest entry is
+ * replaced, so memory stays fixed at the configured capacity. The weak flavor holds its entries
+ * through weak references so the garbage collector may reclaim values nobody else uses.
+ */
+public final class StringPool {
+
+  private static final int WAYS = 4;
+
+  private final Stripe[] stripes;
+  private final int stripeMask;
+  private final int slotMask;
+  private final boolean weak;
+
+  private StringPool(final int capacity, final int stripeCount, final boolean weak) {
+    checkArgument(capacity > 0, "capacity must be a positive number");
+    checkArgument(stripeCount > 0, "stripes must be a positive number");
+
+    final int stripeTotal = powerOfTwo(stripeCount);
+    final int slotsPerStripe = Math.max(WAYS,
+        powerOfTwo((capacity + stripeTotal - 1) / stripeTotal));
+
+    this.stripes = new Stripe[stripeTotal];
+    this.stripeMask = stripeTotal - 1;
+    this.slotMask = slotsPerStripe - 1;
+    this.weak = weak;
+
+    for (int index = 0; index < stripeTotal; index++) {
+      stripes[index] = new Stripe(slotsPerStripe);
+    }
+  }
+
+  /**
+   * Creates a pool holding strong references
+   *
+   * @param capacity The approximate maximum number of pooled strings
+   * @param stripes The number of independently locked segments, rounded up to a power of two
+   * @return The pool
+   */
+  public static StringPool striped(final int capacity, final int stripes) {
+    return new StringPool(capacity, stripes, false);
+  }
+
+  /**
+   * Creates a pool holding weak references, so values are released once unused elsewhere
+   *
+   * @param capacity The approximate maximum number of pooled strings
+   * @param stripes The number of independently locked segments, rounded up to a power of two
+   * @return The pool
+   */
+  public static StringPool weak(final int capacity, final int stripes) {
+    return new StringPool(capacity, stripes, true);
+  }
+
+  public int getCapacity() {
+    return stripes.length * (slotMask + 1);
+  }
+
+  public boolean isWeak() {
+    return weak;
+  }
+
+  public String intern(final CharSequence value) {
+    checkNotNull(value, "value");
+    return intern(value, 0, value.length());
+  }
+
+  public String intern(final CharSequence value, final int start, final int end) {
+    checkNotNull(value, "value");
+    checkPositionIndexes(start, end, value.length());
+
+    int hash = 0;
+
+    for (int index = start; index < end; index++) {
+      hash = 31 * hash + value.charAt(index);
+    }
+
+    final Stripe stripe = stripes[spread(hash) & stripeMask];
+    final int bucket = hash & slotMask & ~(WAYS - 1);
+
+    synchronized (stripe) {
+      for (int way = 0; way < WAYS; way++) {
+        final String candidate = stripe.get(bucket + way);
+
+        if (candidate != null && candidate.hashCode() == hash
+            && contentEquals(candidate, value, start, end)) {
+          return candidate;
+        }
+      }
+
+      return stripe.put(bucket, value.subSequence(start, end).toString(), weak);
+    }
+  }
+
+  public String intern(final char[] buffer, final int offset, final int length) {
+    checkNotNull(buffer, "buffer");
+    checkPositionIndexes(offset, offset + length, buffer.length);
+
+    int hash = 0;
+
+    for (int index = offset; index < offset + length; index++) {
+      hash = 31 * hash + buffer[index];
+    }
+
+    final Stripe stripe = stripes[spread(hash) & stripeMask];
+    final int bucket = hash & slotMask & ~(WAYS - 1);
+
+    synchronized (stripe) {
+      for (int way = 0; way < WAYS; way++) {
+        final String candidate = stripe.get(bucket + way);
+
+        if (candidate != null && candidate.hashCode() == hash
+            && contentEquals(candidate, buffer, offset, length)) {
+          return candidate;
+        }
+      }
+
+      return stripe.put(bucket, new String(buffer, offset, length), weak);
+    }
+  }
+
+  private static boolean contentEquals(
+      final String candidate,
+      final CharSequence value,
+      final int start,
+      final int end) {
+    if (candidate.length() != end - start) {
+      return false;
+    }
+
+    for (int index = start; index < end; index++) {
+      if (candidate.charAt(index - start) != value.charAt(index)) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private static boolean contentEquals(
+      final String candidate,
+      final char[] buffer,
+      final int offset,
+      final int length) {
+    if (candidate.length() != length) {
+      return false;
+    }
+
+    for (int index = 0; index < length; index++) {
+      if (candidate.charAt(index) != buffer[offset + index]) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private static int spread(final int hash) {
+    // Use the high bits for the stripe, the low bits already pick the bucket
+    final int mixed = hash * 0x9E3779B9;
+    return mixed ^ (mixed >>> 16);
+  }
+
+  private static int powerOfTwo(final int value) {
+    return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+  }
+
+  private static final class Stripe {
+
+    private final Object[] slots;
+    private final byte[] nextVictim;
+
+    private Stripe(final int size) {
+      this.slots = new Object[size];
+      this.nextVictim = new byte[size / WAYS];
+    }
+
+    @SuppressWarnings("unchecked")
+    private String get(final int slot) {
+      final Object entry = slots[slot];
+
+      return entry instanceof WeakReference ? ((WeakReference<String>) entry).get()
+          : (String) entry;
+    }
+
+    private String put(final int bucket, final String value, final boolean weak) {
+      int target = -1;
+
+      for (int way = 0; way < WAYS; way++) {
+        if (get(bucket + way) == null) {
+          target = bucket + way;
+          break;
+        }
+      }
+
+      if (target < 0) {
+        // Replace the bucket entries in insertion order
+        final int victim = bucket / WAYS;
+        target = bucket + nextVictim[victim];
+        nextVictim[victim] = (byte) ((nextVictim[victim] + 1) % WAYS);
+      }
+
+      slots[target] = weak ? new WeakReference<>(value) : value;
+
+      return value;
+    }
+  }
+}
@@ -15,22 +15,19 @@
  */
 package org.granite.base;
 
-import static com.google.common.base.CharMatcher.inRange;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkPositionIndexes;
 import static com.google.common.base.Preconditions.checkState;
 
 import com.google.common.base.CharMatcher;
-import com.google.common.base.Joiner;
 import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableMap;
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeSet;
 import java.util.function.Function;
 
 public final class StringTools implements Serializable {
@@ -39,7 +36,30 @@ public final class StringTools implements Serializable {
   }
 
   public static boolean isNullOrEmpty(final String value) {
-    return value == null || value.trim().isEmpty();
+    return value == null || isBlank(value, 0, value.length());
+  }
+
+  public static boolean isNullOrEmpty(final CharSequence value) {
+    return value == null || isBlank(value, 0, value.length());
+  }
+
+  /**
+   * Checks whether a range holds only whitespace (as defined by {@link String#trim()}) without
+   * copying it
+   *
+   * @param value The characters to check
+   * @param start The inclusive start of the range
+   * @param end The exclusive end of the range
+   * @return True if the value is null or the range is empty or whitespace
+   */
+  public static boolean isNullOrEmpty(final CharSequence value, final int start, final int end) {
+    if (value == null) {
+      return true;
+    }
+
+    checkPositionIndexes(start, end, value.length());
+
+    return isBlank(value, start, end);
   }
 
   public static boolean anyNullOrEmpty(final String... values) {
@@ -56,6 +76,30 @@ public final class StringTools implements Serializable {
     return false;
   }
 
+  public static boolean anyNullOrEmpty(final CharSequence... values) {
+    if (values == null) {
+      return true;
+    }
+
+    for (CharSequence value : values) {
+      if (isNullOrEmpty(value)) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  private static boolean isBlank(final CharSequence value, final int start, final int end) {
+    for (int index = start; index < end; index++) {
+      if (value.charAt(index) > ' ') {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
   public static Map<String, String> convertStringsToMap(
       final String lines,
       final CharMatcher entryDelimiter,
@@ -180,6 +224,92 @@ public final class StringTools implements Serializable {
     return value.length() <= maxLength ? value : value.substring(0, maxLength);
   }
 
+  /**
+   * Truncates without copying: the value itself is returned when it is short enough, otherwise
+   * a view of its first maxLength characters
+   *
+   * @param value The characters to truncate
+   * @param maxLength The maximum length of the result
+   * @return The value or a view of its prefix
+   */
+  public static CharSequence truncate(final CharSequence value, final int maxLength) {
+    checkNotNull(value, "value");
+    checkArgument(maxLength > 0, "maxLength must be a positive number");
+
+    return value.length() <= maxLength ? value : new CharSlice(value, 0, maxLength);
+  }
+
+  public static CharSlice slice(final CharSequence value, final int start, final int end) {
+    return new CharSlice(value, start, end);
+  }
+
+  /**
+   * A view of the value without leading and trailing whitespace, as defined by
+   * {@link String#trim()}
+   *
+   * @param value The characters to trim
+   * @return A view of the trimmed range
+   */
+  public static CharSlice trimView(final CharSequence value) {
+    checkNotNull(value, "value");
+
+    int start = 0;
+    int end = value.length();
+
+    while (start < end && value.charAt(start) <= ' ') {
+      start++;
+    }
+
+    while (end > start && value.charAt(end - 1) <= ' ') {
+      end--;
+    }
+
+    return new CharSlice(value, start, end);
+  }
+
+  /**
+   * Splits the value into views of the source characters. Empty fields are kept, so a value
+   * with n delimiters always yields n + 1 views.
+   *
+   * @param value The characters to split
+   * @param delimiter Matches the delimiter characters
+   * @param trimResults Set to true to trim whitespace from each view
+   * @return The views, in order
+   */
+  public static List<CharSlice> splitToViews(
+      final CharSequence value,
+      final CharMatcher delimiter,
+      final boolean trimResults) {
+    checkNotNull(value, "value");
+    checkNotNull(delimiter, "delimiter");
+
+    final List<CharSlice> result = new ArrayList<>();
+
+    int start = 0;
+
+    for (int index = 0; index <= value.length(); index++) {
+      if (index == value.length() || delimiter.matches(value.charAt(index))) {
+        int sliceStart = start;
+        int sliceEnd = index;
+
+        if (trimResults) {
+          while (sliceStart < sliceEnd && value.charAt(sliceStart) <= ' ') {
+            sliceStart++;
+          }
+
+          while (sliceEnd > sliceStart && value.charAt(sliceEnd - 1) <= ' ') {
+            sliceEnd--;
+          }
+        }
+
+        result.add(new CharSlice(value, sliceStart, sliceEnd));
+        start = index + 1;
+      }
+    }
+
+    return result;
+  }
+
   public static String cleanSentence(final String... text) {
     checkNotNull(text, "text");
 
@@ -187,7 +317,9 @@ public final class StringTools implements Serializable {
       return "";
     }
 
-    return cleanText(Joiner.on(' ').skipNulls().join(text));
+    return TextNormalizer.LOWER_ALPHA
+        .normalizeJoined(text, new StringBuilder())
+        .toString();
   }
 
   public static String cleanText(final String wildText) {
@@ -197,13 +329,9 @@ public final class StringTools implements Serializable {
       return "";
     }
 
-    // Turn everything that is not a lower-case letter or number
+    // Turn everything that is not a lower-case letter
     // into a space and collapse any groups to a single space
-    return inRange('a', 'z')
-        .or(inRange('A', 'Z'))
-        .negate()
-        .collapseFrom(wildText
-            .toLowerCase(), ' ').trim();
+    return TextNormalizer.LOWER_ALPHA.normalize(wildText);
   }
 
   public static int levenshtein(
@@ -212,37 +340,25 @@ public final class StringTools implements Serializable {
     checkNotNull(first, "first");
     checkNotNull(second, "second");
 
-    int[][] distance = new int[first.length() + 1][second.length() + 1];
-
-    if (Math.min(first.length(), second.length()) == 0) {
-      return Math.abs(first.length() - second.length());
-    }
-
-    for (int i = 0; i <= first.length(); i++) {
-      for (int j = 0; j <= second.length(); j++) {
-        if (i == 0) {
-          distance[i][j] = j;
-        } else if (j == 0) {
-          distance[i][j] = i;
-        } else {
-          distance[i][j] = min(distance[i - 1][j - 1]
-                  + costOfSubstitution(first.charAt(i - 1), second.charAt(j - 1)),
-              distance[i - 1][j] + 1,
-              distance[i][j - 1] + 1);
-        }
-      }
-    }
-
-    return distance[first.length()][second.length()];
+    return EditDistance.levenshtein(first, second);
   }
 
-  private static int costOfSubstitution(char a, char b) {
-    return a == b ? 0 : 1;
-  }
+  /**
+   * Computes the levenshtein distance, stopping early once it exceeds maxDistance
+   *
+   * @param first The first string
+   * @param second The second string
+   * @param maxDistance The largest distance of interest
+   * @return The distance, or -1 if it is greater than maxDistance
+   */
+  public static int levenshtein(
+      final String first,
+      final String second,
+      final int maxDistance) {
+    checkNotNull(first, "first");
+    checkNotNull(second, "second");
 
-  private static int min(int... numbers) {
-    return Arrays.stream(numbers)
-        .min().orElse(Integer.MAX_VALUE);
+    return EditDistance.levenshtein(first, second, maxDistance);
   }
 
   public static List<String> textQualifiedStringSplit(
@@ -269,54 +385,71 @@ public final class StringTools implements Serializable {
     checkNotNull(delimiter, "delimiter");
     checkNotNull(textQualifier, "textQualifier");
 
-    if (textQualifier.removeFrom(line).trim().isEmpty()) {
+    if (isQualifiersOrWhitespace(line, textQualifier)) {
       return new ArrayList<>();
     }
 
     final List<String> result = new ArrayList<>();
 
-    final TreeSet<Integer> splits = new TreeSet<>();
+    // Qualifiers are dropped from the output as they are encountered so
+    // that each field is copied exactly once
+    final StringBuilder field = new StringBuilder(line.length());
 
     boolean qualified = false;
 
-    int index = 0;
-    while (index < line.length()) {
-      char current = line.charAt(index);
+    for (int index = 0; index < line.length(); index++) {
+      final char current = line.charAt(index);
 
       if (textQualifier.matches(current)) {
         qualified = !qualified;
+      } else if (delimiter.matches(current) && !qualified) {
+        result.add(cleanSplit(field, trimResults));
+        field.setLength(0);
+      } else {
+        field.append(current);
       }
-
-      if (delimiter.matches(current) && !qualified) {
-        splits.add(index);
-      }
-
-      index++;
     }
 
-    int start = 0;
-
     checkState(!qualified, "Unmatched qualifier in line: %s", line);
 
-    for (Integer split : splits) {
-      result.add(cleanSplit(line.substring(start, split), textQualifier, trimResults));
-      start = split + 1;
-    }
+    result.add(cleanSplit(field, trimResults));
+
+    return result;
+  }
+
+  private static boolean isQualifiersOrWhitespace(
+      final String line,
+      final CharMatcher textQualifier) {
+    for (int index = 0; index < line.length(); index++) {
+      final char current = line.charAt(index);
 
-    if (start < line.length()) {
-      result.add(cleanSplit(line.substring(start), textQualifier, trimResults));
-    } else {
-      result.add("");
+      if (current > ' ' && !textQualifier.matches(current)) {
+        return false;
+      }
     }
 
-    return result;
+    return true;
   }
 
   private static String cleanSplit(
-      final String value,
-      final CharMatcher textQualifier,
+      final StringBuilder value,
       final boolean trimResults) {
-    return trimResults ? textQualifier.removeFrom(value).trim() : textQualifier.removeFrom(value);
+    if (!trimResults) {
+      return value.toString();
+    }
+
+    int start = 0;
+    int end = value.length();
+
+    while (start < end && value.charAt(start) <= ' ') {
+      start++;
+    }
+
+    while (end > start && value.charAt(end - 1) <= ' ') {
+      end--;
+    }
+
+    return value.substring(start, end);
   }
 
   public static boolean containsAny(final String value, final String... searchStrings) {
@@ -336,4 +469,18 @@ public final class StringTools implements Serializable {
     return false;
   }
 
+  /**
+   * Checks the value against every pattern of a precompiled matcher in a single pass
+   *
+   * @param value The string to search
+   * @param matcher The patterns to search for
+   * @return True if any pattern occurs in the value
+   */
+  public static boolean containsAny(final String value, final MultiStringMatcher matcher) {
+    checkNotNull(value, "value");
+    checkNotNull(matcher, "matcher");
+
+    return matcher.containsAny(value);
+  }
+
 }
@@ -0,0 +1,319 @@
+/*
+ * Copyright (C) 2016 Charles Brophy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.granite.base;
+
+import static com.google.common.base.CharMatcher.inRange;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.CharMatcher;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.BitSet;
+
+/**
+ * Normalizes text in a single pass: characters are optionally lower-cased, every run of
+ * characters outside of the retained class is collapsed to one separator and leading and
+ * trailing separators are dropped.
+ *
+ * Output is written straight into a caller-supplied buffer, so normalizing into a reused
+ * StringBuilder or char[] does not allocate. Lower-casing is per character and independent of
+ * the default locale. Instances are immutable and safe to share between threads.
+ *
+ * CharMatcher is not serializable, so the retained class is serialized as the set of characters
+ * it matches and comes back as an equivalent matcher.
+ */
+public final class TextNormalizer implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Keeps only the letters a-z after lower-casing, separated by single spaces. This is the
+   * normalization used by {@link StringTools#cleanText(String)}.
+   */
+  public static final TextNormalizer LOWER_ALPHA = new TextNormalizer(
+      inRange('a', 'z'),
+      true,
+      ' ');
+
+  private static final int ASCII_SIZE = 128;
+
+  private final CharMatcher retained;
+  private final boolean lowerCase;
+  private final char separator;
+
+  private final boolean[] retainedAscii = new boolean[ASCII_SIZE];
+
+  /**
+   * Constructor
+   *
+   * @param retained The characters to keep, tested after lower-casing
+   * @param lowerCase Set to true to lower-case characters before testing them
+   * @param separator The character written between runs of retained characters
+   */
+  public TextNormalizer(
+      final CharMatcher retained,
+      final boolean lowerCase,
+      final char separator) {
+    this.retained = checkNotNull(retained, "retained");
+    this.lowerCase = lowerCase;
+    this.separator = separator;
+
+    for (char current = 0; current < ASCII_SIZE; current++) {
+      retainedAscii[current] = retained.matches(current);
+    }
+  }
+
+  public CharMatcher getRetained() {
+    return retained;
+  }
+
+  public boolean isLowerCase() {
+    return lowerCase;
+  }
+
+  public char getSeparator() {
+    return separator;
+  }
+
+  public String normalize(final CharSequence text) {
+    checkNotNull(text, "text");
+
+    if (text.length() == 0) {
+      return "";
+    }
+
+    final char[] result = new char[text.length()];
+
+    return new String(result, 0, normalize(text, result, 0));
+  }
+
+  /**
+   * Appends the normalized text to the destination
+   *
+   * @param text The text to normalize
+   * @param destination The builder to append to
+   * @return The destination
+   */
+  public StringBuilder normalize(final CharSequence text, final StringBuilder destination) {
+    checkNotNull(text, "text");
+    checkNotNull(destination, "destination");
+
+    final int start = destination.length();
+
+    // Normalized text is never longer than its input
+    destination.setLength(start + text.length());
+
+    final int written = write(text, destination, null, start, false);
+
+    destination.setLength(start + written);
+
+    return destination;
+  }
+
+  /**
+   * Writes the normalized text into the destination array, which must have room for at least
+   * text.length() characters from the offset.
+   *
+   * @param text The text to normalize
+   * @param destination The array to write to
+   * @param offset The position in the destination to start writing
+   * @return The number of characters written
+   */
+  public int normalize(final CharSequence text, final char[] destination, final int offset) {
+    checkNotNull(text, "text");
+    checkNotNull(destination, "destination");
+    checkArgument(offset >= 0 && destination.length - offset >= text.length(),
+        "destination needs room for %s characters", text.length());
+
+    return write(text, null, destination, offset, false);
+  }
+
+  /**
+   * Normalizes the parts as if they had been joined with a space, without joining them. Null
+   * parts are skipped.
+   *
+   * @param parts The text to normalize
+   * @param destination The builder to append to
+   * @return The destination
+   */
+  public StringBuilder normalizeJoined(
+      final CharSequence[] parts,
+      final StringBuilder destination) {
+    checkNotNull(parts, "parts");
+    checkNotNull(destination, "destination");
+
+    final int start = destination.length();
+    int length = start;
+    boolean written = false;
+
+    for (CharSequence part : parts) {
+      if (part == null) {
+        continue;
+      }
+
+      destination.setLength(length + part.length() + 1);
+
+      final int count = write(part, destination, null, length, written);
+
+      if (count > 0) {
+        written = true;
+      }
+
+      length += count;
+    }
+
+    destination.setLength(length);
+
+    return destination;
+  }
+
+  /**
+   * Normalizes each value, reusing one working buffer for the whole batch
+   *
+   * @param values The values to normalize; null elements are left as null
+   * @return A new array holding the normalized values
+   */
+  public String[] normalizeEach(final String[] values) {
+    checkNotNull(values, "values");
+
+    final String[] result = new String[values.length];
+
+    char[] buffer = new char[64];
+
+    for (int index = 0; index < values.length; index++) {
+      final String value = values[index];
+
+      if (value == null) {
+        continue;
+      }
+
+      if (buffer.length < value.length()) {
+        buffer = new char[Math.max(value.length(), buffer.length << 1)];
+      }
+
+      result[index] = new String(buffer, 0, write(value, null, buffer, 0, false));
+    }
+
+    return result;
+  }
+
+  /**
+   * Writes to either the builder or the array, which must already have room for the output
+   *
+   * @param separatorFirst Whether a separator is owed before the first retained character
+   * @return The number of characters written
+   */
+  private int write(
+      final CharSequence text,
+      final StringBuilder builder,
+      final char[] array,
+      final int offset,
+      final boolean separatorFirst) {
+
+    int position = offset;
+    boolean pendingSeparator = separatorFirst;
+    boolean any = separatorFirst;
+
+    for (int index = 0; index < text.length(); index++) {
+      char current = text.charAt(index);
+
+      final boolean keep;
+
+      if (current < ASCII_SIZE) {
+        if (lowerCase && current >= 'A' && current <= 'Z') {
+          current += 'a' - 'A';
+        }
+
+        keep = retainedAscii[current];
+      } else {
+        if (lowerCase) {
+          current = Character.toLowerCase(current);
+        }
+
+        keep = retained.matches(current);
+      }
+
+      if (!keep) {
+        pendingSeparator = true;
+        continue;
+      }
+
+      if (pendingSeparator && any) {
+        position = put(builder, array, position, separator);
+      }
+
+      position = put(builder, array, position, current);
+      pendingSeparator = false;
+      any = true;
+    }
+
+    return position - offset;
+  }
+
+  private static int put(
+      final StringBuilder builder,
+      final char[] array,
+      final int position,
+      final char value) {
+    if (builder != null) {
+      builder.setCharAt(position, value);
+    } else {
+      array[position] = value;
+    }
+
+    return position + 1;
+  }
+
+  private Object writeReplace() {
+    return new SerializedForm(this);
+  }
+
+  private void readObject(final ObjectInputStream stream) throws InvalidObjectException {
+    throw new InvalidObjectException("Deserialized through SerializedForm");
+  }
+
+  private static final class SerializedForm implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final BitSet retained;
+    private final boolean lowerCase;
+    private final char separator;
+
+    private SerializedForm(final TextNormalizer normalizer) {
+      this.retained = new BitSet(Character.MAX_VALUE + 1);
+      this.lowerCase = normalizer.lowerCase;
+      this.separator = normalizer.separator;
+
+      for (int current = Character.MIN_VALUE; current <= Character.MAX_VALUE; current++) {
+        if (normalizer.retained.matches((char) current)) {
+          retained.set(current);
+        }
+      }
+    }
+
+    private Object readResolve() {
+      final BitSet matched = retained;
+
+      return new TextNormalizer(
+          CharMatcher.forPredicate(current -> matched.get(current)),
+          lowerCase,
+          separator);
+    }
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2016 Charles Brophy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.granite.base;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Generates version 7 UUIDs, which start with a 48 bit Unix timestamp in milliseconds so that
+ * consecutive keys land next to each other in B-tree indexes.
+ *
+ * The 12 bits after the version hold a counter that keeps ids strictly increasing across all
+ * threads, even when many are created within one millisecond. The timestamp and counter are
+ * advanced together with a compare-and-set on a single AtomicLong, so generation never blocks.
+ * When a millisecond's counter is exhausted the id borrows the next millisecond, and the clock
+ * catches up again on its own. The remaining 62 bits are random and come from per-thread
+ * buffers that are refilled from a per-thread SecureRandom in bulk.
+ */
+public final class TimeOrderedUuidGenerator {
+
+  private static final int COUNTER_BITS = 12;
+  private static final int ENTROPY_BUFFER = 256;
+
+  private final LongSupplier clock;
+  private final AtomicLong state = new AtomicLong();
+  private final ThreadLocal<Entropy> entropy = ThreadLocal.withInitial(Entropy::new);
+
+  public TimeOrderedUuidGenerator() {
+    this(System::currentTimeMillis);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param clock Supplies the current Unix time in milliseconds
+   */
+  public TimeOrderedUuidGenerator(final LongSupplier clock) {
+    this.clock = checkNotNull(clock, "clock");
+  }
+
+  public UUID generate() {
+    return create(reserve(1), entropy.get());
+  }
+
+  /**
+   * Generates a batch of ids, reserving the whole range with a single atomic update
+   *
+   * @param count The number of ids to generate
+   * @return The ids in ascending order
+   */
+  public UUID[] generate(final int count) {
+    checkArgument(count >= 0, "count cannot be negative");
+
+    final UUID[] result = new UUID[count];
+
+    if (count == 0) {
+      return result;
+    }
+
+    final long first = reserve(count);
+    final Entropy threadEntropy = entropy.get();
+
+    for (int index = 0; index < count; index++) {
+      result[index] = create(first + index, threadEntropy);
+    }
+
+    return result;
+  }
+
+  /**
+   * Extracts the Unix time in milliseconds from a version 7 UUID
+   *
+   * @param uuid A time-ordered UUID
+   * @return The embedded timestamp
+   */
+  public static long getTimestamp(final UUID uuid) {
+    checkNotNull(uuid, "uuid");
+    checkArgument(uuid.version() == 7, "UUID is version %s, not 7", uuid.version());
+
+    return uuid.getMostSignificantBits() >>> 16;
+  }
+
+  /**
+   * Claims count consecutive timestamp and counter values
+   *
+   * @return The first value claimed
+   */
+  private long reserve(final int count) {
+    while (true) {
+      final long previous = state.get();
+      final long now = clock.getAsLong() << COUNTER_BITS;
+      final long first = Math.max(now, previous + 1);
+
+      if (state.compareAndSet(previous, first + count - 1)) {
+        return first;
+      }
+    }
+  }
+
+  private static UUID create(final long timeAndCounter, final Entropy threadEntropy) {
+    final long millis = timeAndCounter >>> COUNTER_BITS;
+    final long counter = timeAndCounter & ((1L << COUNTER_BITS) - 1);
+
+    final long most = (millis << 16) | 0x7000L | counter;
+    final long least = (threadEntropy.next() >>> 2) | 0x8000000000000000L;
+
+    return new UUID(most, least);
+  }
+
+  private static final class Entropy {
+
+    private final SecureRandom random = new SecureRandom();
+    private final byte[] bytes = new byte[ENTROPY_BUFFER * 8];
+    private final long[] values = new long[ENTROPY_BUFFER];
+    private int position = ENTROPY_BUFFER;
+
+    private long next() {
+      if (position == ENTROPY_BUFFER) {
+        random.nextBytes(bytes);
+        ByteBuffer.wrap(bytes).asLongBuffer().get(values);
+        position = 0;
+      }
+
+      return values[position++];
+    }
+  }
+}
@@ -17,42 +17,330 @@ package org.granite.base;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkPositionIndexes;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
 import java.util.Base64;
 import java.util.UUID;
 
 public class UUIDTools {
 
+  /**
+   * The length of the binary form of a UUID: the most significant bits followed by the least
+   * significant bits, both big-endian
+   */
+  public static final int UUID_BYTES = 16;
+
+  private static final TimeOrderedUuidGenerator TIME_ORDERED = new TimeOrderedUuidGenerator();
+
+  private static final byte[] HEX_DIGITS = new byte['f' + 1];
+
+  /**
+   * The length of the unpadded base64url form of a UUID
+   */
+  public static final int BASE64_URL_CHARS = 22;
+
+  private static final char[] BASE64_URL_ALPHABET =
+      "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".toCharArray();
+
+  private static final byte[] BASE64_URL_VALUES = new byte['z' + 1];
+
+  private static final ThreadLocal<char[]> BASE64_URL_BUFFER =
+      ThreadLocal.withInitial(() -> new char[BASE64_URL_CHARS]);
+
+  static {
+    Arrays.fill(HEX_DIGITS, (byte) -1);
+    Arrays.fill(BASE64_URL_VALUES, (byte) -1);
+
+    for (int value = 0; value < BASE64_URL_ALPHABET.length; value++) {
+      BASE64_URL_VALUES[BASE64_URL_ALPHABET[value]] = (byte) value;
+    }
+
+    for (int digit = 0; digit < 16; digit++) {
+      HEX_DIGITS[Character.forDigit(digit, 16)] = (byte) digit;
+      HEX_DIGITS[Character.toUpperCase(Character.forDigit(digit, 16))] = (byte) digit;
+    }
+  }
+
+  /**
+   * Generates a version 7 UUID, which sorts by creation time
+   *
+   * @return The UUID
+   * @see TimeOrderedUuidGenerator
+   */
+  public static UUID timeOrderedUuid() {
+    return TIME_ORDERED.generate();
+  }
+
+  public static UUID[] timeOrderedUuids(final int count) {
+    return TIME_ORDERED.generate(count);
+  }
+
   public static byte[] uuidToByteArray(final UUID uuid) {
-    checkNotNull(uuid, "uuid");
-    final ByteBuffer buffer = ByteBuffer.wrap(new byte[16]);
-    buffer.putLong(uuid.getMostSignificantBits());
-    buffer.putLong(uuid.getLeastSignificantBits());
-    return buffer.array();
+    final byte[] result = new byte[UUID_BYTES];
+    writeUuid(uuid, result, 0);
+    return result;
   }
 
   public static UUID byteArrayToUUID(final byte[] bytes) {
     checkNotNull(bytes, "bytes");
-    checkArgument(bytes.length == 16,
+    checkArgument(bytes.length == UUID_BYTES,
         "UUID has 16 bytes, argument has %s",
         String.valueOf(bytes.length));
 
-    final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    return readUuid(bytes, 0);
+  }
+
+  /**
+   * Writes the binary form of the UUID into a larger buffer
+   *
+   * @param uuid The UUID to write
+   * @param destination The buffer to write to
+   * @param offset The position of the first byte
+   * @return The position after the last byte written
+   */
+  public static int writeUuid(final UUID uuid, final byte[] destination, final int offset) {
+    checkNotNull(uuid, "uuid");
+    return writeUuid(
+        uuid.getMostSignificantBits(),
+        uuid.getLeastSignificantBits(),
+        destination,
+        offset);
+  }
+
+  public static int writeUuid(
+      final long mostSignificantBits,
+      final long leastSignificantBits,
+      final byte[] destination,
+      final int offset) {
+    checkNotNull(destination, "destination");
+    checkPositionIndexes(offset, offset + UUID_BYTES, destination.length);
+
+    putLong(destination, offset, mostSignificantBits);
+    putLong(destination, offset + 8, leastSignificantBits);
+
+    return offset + UUID_BYTES;
+  }
+
+  public static UUID readUuid(final byte[] source, final int offset) {
+    return new UUID(mostSignificantBits(source, offset), leastSignificantBits(source, offset));
+  }
+
+  /**
+   * Reads the high half of a UUID stored at the offset, for callers that work with the two
+   * longs directly and do not need a UUID instance
+   *
+   * @param source The buffer holding the binary UUID
+   * @param offset The position of the first byte of the UUID
+   * @return The most significant bits
+   */
+  public static long mostSignificantBits(final byte[] source, final int offset) {
+    checkNotNull(source, "source");
+    checkPositionIndexes(offset, offset + UUID_BYTES, source.length);
+
+    return getLong(source, offset);
+  }
+
+  public static long leastSignificantBits(final byte[] source, final int offset) {
+    checkNotNull(source, "source");
+    checkPositionIndexes(offset, offset + UUID_BYTES, source.length);
+
+    return getLong(source, offset + 8);
+  }
+
+  /**
+   * Writes the binary form of the UUID at the buffer's position and advances it. The bytes are
+   * big-endian regardless of the buffer's byte order.
+   *
+   * @param uuid The UUID to write
+   * @param destination The buffer to write to
+   */
+  public static void writeUuid(final UUID uuid, final ByteBuffer destination) {
+    checkNotNull(uuid, "uuid");
+    checkNotNull(destination, "destination");
+
+    final boolean bigEndian = destination.order() == ByteOrder.BIG_ENDIAN;
+    final long most = uuid.getMostSignificantBits();
+    final long least = uuid.getLeastSignificantBits();
+
+    destination.putLong(bigEndian ? most : Long.reverseBytes(most));
+    destination.putLong(bigEndian ? least : Long.reverseBytes(least));
+  }
+
+  public static void writeUuid(final UUID uuid, final ByteBuffer destination, final int index) {
+    checkNotNull(uuid, "uuid");
+    checkNotNull(destination, "destination");
+
+    final boolean bigEndian = destination.order() == ByteOrder.BIG_ENDIAN;
+    final long most = uuid.getMostSignificantBits();
+    final long least = uuid.getLeastSignificantBits();
+
+    destination.putLong(index, bigEndian ? most : Long.reverseBytes(most));
+    destination.putLong(index + 8, bigEndian ? least : Long.reverseBytes(least));
+  }
+
+  public static UUID readUuid(final ByteBuffer source) {
+    checkNotNull(source, "source");
+
+    final boolean bigEndian = source.order() == ByteOrder.BIG_ENDIAN;
+    final long most = source.getLong();
+    final long least = source.getLong();
+
+    return bigEndian ? new UUID(most, least)
+        : new UUID(Long.reverseBytes(most), Long.reverseBytes(least));
+  }
+
+  public static UUID readUuid(final ByteBuffer source, final int index) {
+    checkNotNull(source, "source");
+
+    final boolean bigEndian = source.order() == ByteOrder.BIG_ENDIAN;
+    final long most = source.getLong(index);
+    final long least = source.getLong(index + 8);
+
+    return bigEndian ? new UUID(most, least)
+        : new UUID(Long.reverseBytes(most), Long.reverseBytes(least));
+  }
+
+  public static byte[] uuidsToByteArray(final UUID... uuids) {
+    checkNotNull(uuids, "uuids");
+
+    final byte[] result = new byte[uuids.length * UUID_BYTES];
+    writeUuids(uuids, 0, uuids.length, result, 0);
+    return result;
+  }
+
+  /**
+   * Packs a range of UUIDs back to back into the destination
+   *
+   * @param uuids The UUIDs to write
+   * @param start The index of the first UUID to write
+   * @param count The number of UUIDs to write
+   * @param destination The buffer to write to
+   * @param offset The position of the first byte
+   * @return The position after the last byte written
+   */
+  public static int writeUuids(
+      final UUID[] uuids,
+      final int start,
+      final int count,
+      final byte[] destination,
+      final int offset) {
+    checkNotNull(uuids, "uuids");
+    checkNotNull(destination, "destination");
+    checkPositionIndexes(start, start + count, uuids.length);
+    checkPositionIndexes(offset, offset + count * UUID_BYTES, destination.length);
+
+    int position = offset;
+
+    for (int index = start; index < start + count; index++) {
+      final UUID uuid = checkNotNull(uuids[index], "uuid");
+
+      putLong(destination, position, uuid.getMostSignificantBits());
+      putLong(destination, position + 8, uuid.getLeastSignificantBits());
+      position += UUID_BYTES;
+    }
+
+    return position;
+  }
+
+  public static UUID[] byteArrayToUUIDs(final byte[] bytes) {
+    checkNotNull(bytes, "bytes");
+    checkArgument(bytes.length % UUID_BYTES == 0,
+        "Packed UUIDs have a multiple of 16 bytes, argument has %s",
+        String.valueOf(bytes.length));
+
+    final UUID[] result = new UUID[bytes.length / UUID_BYTES];
+    readUuids(bytes, 0, result, 0, result.length);
+    return result;
+  }
+
+  /**
+   * Unpacks UUIDs stored back to back in the source
+   *
+   * @param source The buffer holding the packed UUIDs
+   * @param offset The position of the first byte
+   * @param destination The array to fill
+   * @param start The index in the destination of the first UUID
+   * @param count The number of UUIDs to read
+   * @return The position after the last byte read
+   */
+  public static int readUuids(
+      final byte[] source,
+      final int offset,
+      final UUID[] destination,
+      final int start,
+      final int count) {
+    checkNotNull(source, "source");
+    checkNotNull(destination, "destination");
+    checkPositionIndexes(offset, offset + count * UUID_BYTES, source.length);
+    checkPositionIndexes(start, start + count, destination.length);
 
-    return new UUID(buffer.getLong(0), buffer.getLong(8));
+    int position = offset;
+
+    for (int index = start; index < start + count; index++) {
+      destination[index] = new UUID(getLong(source, position), getLong(source, position + 8));
+      position += UUID_BYTES;
+    }
+
+    return position;
   }
 
   public static UUID tryParse(final String uuidString) {
-    if (!StringTools.isNullOrEmpty(uuidString)) {
-      try {
-        return UUID.fromString(uuidString);
-      } catch (Exception ignored) {
+    return tryParse((CharSequence) uuidString);
+  }
 
+  public static UUID tryParse(final CharSequence uuidString) {
+    return uuidString == null ? null : tryParse(uuidString, 0, uuidString.length());
+  }
+
+  /**
+   * Parses the canonical 36 character form ("09e328ab-087d-443f-a55a-804bedf3c334") or the
+   * compact 32 character form without dashes, in either case. Malformed input yields null
+   * without throwing, so bad values are as cheap to reject as good ones are to accept.
+   *
+   * @param uuidString The characters holding the UUID
+   * @param start The inclusive start of the UUID
+   * @param end The exclusive end of the UUID
+   * @return The UUID, or null if the range does not hold one
+   */
+  public static UUID tryParse(final CharSequence uuidString, final int start, final int end) {
+    checkNotNull(uuidString, "uuidString");
+    checkPositionIndexes(start, end, uuidString.length());
+
+    final long first;
+    final long second;
+    final long third;
+    final long fourth;
+    final long fifth;
+
+    if (end - start == 36) {
+      if (uuidString.charAt(start + 8) != '-' || uuidString.charAt(start + 13) != '-'
+          || uuidString.charAt(start + 18) != '-' || uuidString.charAt(start + 23) != '-') {
+        return null;
       }
+
+      first = parseHex(uuidString, start, 8);
+      second = parseHex(uuidString, start + 9, 4);
+      third = parseHex(uuidString, start + 14, 4);
+      fourth = parseHex(uuidString, start + 19, 4);
+      fifth = parseHex(uuidString, start + 24, 12);
+    } else if (end - start == 32) {
+      first = parseHex(uuidString, start, 8);
+      second = parseHex(uuidString, start + 8, 4);
+      third = parseHex(uuidString, start + 12, 4);
+      fourth = parseHex(uuidString, start + 16, 4);
+      fifth = parseHex(uuidString, start + 20, 12);
+    } else {
+      return null;
+    }
+
+    if ((first | second | third | fourth | fifth) < 0) {
+      return null;
     }
 
-    return null;
+    return new UUID((first << 32) | (second << 16) | third, (fourth << 48) | fifth);
   }
 
   public static String uuidToBase64(final UUID uuid) {
@@ -69,4 +357,152 @@ public class UUIDTools {
             .getDecoder()
             .decode(base64));
   }
+
+  /**
+   * Encodes the UUID as 22 unpadded base64url characters, the same text as
+   * {@code Base64.getUrlEncoder().withoutPadding()} produces for its binary form, without any
+   * intermediate byte arrays
+   *
+   * @param uuid The UUID to encode
+   * @return The encoded UUID
+   */
+  public static String uuidToBase64Url(final UUID uuid) {
+    final char[] buffer = BASE64_URL_BUFFER.get();
+    uuidToBase64Url(uuid, buffer, 0);
+    return new String(buffer);
+  }
+
+  /**
+   * Writes the 22 character base64url form of the UUID into a caller-supplied buffer
+   *
+   * @param uuid The UUID to encode
+   * @param destination The buffer to write to
+   * @param offset The position of the first character
+   * @return The position after the last character written
+   */
+  public static int uuidToBase64Url(final UUID uuid, final char[] destination, final int offset) {
+    checkNotNull(uuid, "uuid");
+    checkNotNull(destination, "destination");
+    checkPositionIndexes(offset, offset + BASE64_URL_CHARS, destination.length);
+
+    final long most = uuid.getMostSignificantBits();
+    final long least = uuid.getLeastSignificantBits();
+
+    // Ten characters from each half, one spanning both and one for the last two bits
+    for (int index = 0; index < 10; index++) {
+      destination[offset + index] = BASE64_URL_ALPHABET[(int) (most >>> (58 - 6 * index)) & 63];
+    }
+
+    destination[offset + 10] = BASE64_URL_ALPHABET[(int) ((most & 15) << 2 | least >>> 62)];
+
+    for (int index = 0; index < 10; index++) {
+      destination[offset + 11 + index] =
+          BASE64_URL_ALPHABET[(int) (least >>> (56 - 6 * index)) & 63];
+    }
+
+    destination[offset + 21] = BASE64_URL_ALPHABET[(int) (least & 3) << 4];
+
+    return offset + BASE64_URL_CHARS;
+  }
+
+  public static StringBuilder appendBase64Url(final UUID uuid, final StringBuilder builder) {
+    checkNotNull(builder, "builder");
+
+    final char[] buffer = BASE64_URL_BUFFER.get();
+    uuidToBase64Url(uuid, buffer, 0);
+    return builder.append(buffer);
+  }
+
+  public static UUID base64UrlToUUID(final CharSequence base64) {
+    checkNotNull(base64, "base64");
+    return base64UrlToUUID(base64, 0, base64.length());
+  }
+
+  /**
+   * Decodes the 22 character base64url form of a UUID
+   *
+   * @param base64 The characters holding the encoded UUID
+   * @param start The inclusive start of the encoded UUID
+   * @param end The exclusive end of the encoded UUID
+   * @return The UUID
+   * @throws IllegalArgumentException If the range is not a canonical encoded UUID
+   */
+  public static UUID base64UrlToUUID(final CharSequence base64, final int start, final int end) {
+    checkNotNull(base64, "base64");
+    checkPositionIndexes(start, end, base64.length());
+    checkArgument(end - start == BASE64_URL_CHARS,
+        "Encoded UUID has 22 characters, argument has %s", end - start);
+
+    long most = 0L;
+    long least = 0L;
+    int invalid = 0;
+
+    for (int index = 0; index < 10; index++) {
+      final int value = base64UrlValue(base64.charAt(start + index));
+      invalid |= value;
+      most = (most << 6) | (value & 63);
+    }
+
+    final int spanning = base64UrlValue(base64.charAt(start + 10));
+    invalid |= spanning;
+    most = (most << 4) | ((spanning & 63) >>> 2);
+    least = spanning & 3;
+
+    for (int index = 11; index < 21; index++) {
+      final int value = base64UrlValue(base64.charAt(start + index));
+      invalid |= value;
+      least = (least << 6) | (value & 63);
+    }
+
+    final int last = base64UrlValue(base64.charAt(start + 21));
+    invalid |= last | ((last & 15) == 0 ? 0 : -1);
+    least = (least << 2) | ((last & 63) >>> 4);
+
+    checkArgument(invalid >= 0, "Not a base64url encoded UUID: %s",
+        base64.subSequence(start, end));
+
+    return new UUID(most, least);
+  }
+
+  private static int base64UrlValue(final char value) {
+    return value < BASE64_URL_VALUES.length ? BASE64_URL_VALUES[value] : -1;
+  }
+
+  private static void putLong(final byte[] destination, final int offset, final long value) {
+    for (int index = 0; index < 8; index++) {
+      destination[offset + index] = (byte) (value >>> (56 - (index << 3)));
+    }
+  }
+
+  private static long getLong(final byte[] source, final int offset) {
+    long result = 0L;
+
+    for (int index = 0; index < 8; index++) {
+      result = (result << 8) | (source[offset + index] & 0xFFL);
+    }
+
+    return result;
+  }
+
+  /**
+   * Parses up to 12 hex digits
+   *
+   * @return The value, or -1 if any character is not a hex digit
+   */
+  private static long parseHex(final CharSequence value, final int offset, final int digits) {
+    long result = 0L;
+
+    for (int index = offset; index < offset + digits; index++) {
+      final char current = value.charAt(index);
+      final int digit = current < HEX_DIGITS.length ? HEX_DIGITS[current] : -1;
+
+      if (digit < 0) {
+        return -1L;
+      }
+
+      result = (result << 4) | digit;
+    }
+
+    return result;
+  }
 }
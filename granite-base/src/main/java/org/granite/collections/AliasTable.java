@@ -0,0 +1,125 @@
+package org.granite.collections;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Draws indexes in proportion to a fixed set of weights in constant time, using Vose's alias
+ * method.
+ *
+ * Building the table takes linear time. Each draw then picks a column uniformly and either
+ * keeps it or takes its alias, so it costs one random int and one random double however many
+ * weights there are. Tables are immutable and may be shared between threads.
+ */
+public class AliasTable {
+
+  private final double[] probabilities;
+  private final int[] aliases;
+  private final double[] weights;
+  private final double totalWeight;
+
+  /**
+   * Constructor
+   *
+   * @param weights The non-negative weight of each index, of which at least one is positive
+   */
+  public AliasTable(final double[] weights) {
+    checkNotNull(weights, "weights");
+    checkArgument(weights.length > 0, "weights cannot be empty");
+
+    double total = 0.0;
+
+    for (double weight : weights) {
+      checkArgument(weight >= 0.0 && weight < Double.POSITIVE_INFINITY,
+          "Invalid weight %s", weight);
+      total += weight;
+    }
+
+    checkArgument(total > 0.0 && total < Double.POSITIVE_INFINITY,
+        "weights must have a positive, finite sum");
+
+    final int count = weights.length;
+
+    this.weights = weights.clone();
+    this.totalWeight = total;
+    this.probabilities = new double[count];
+    this.aliases = new int[count];
+
+    // Columns scaled so the average is 1, split into a stack of those below and above it
+    final double[] scaled = new double[count];
+    final int[] small = new int[count];
+    final int[] large = new int[count];
+    int smallSize = 0;
+    int largeSize = 0;
+
+    for (int index = 0; index < count; index++) {
+      scaled[index] = weights[index] * count / total;
+
+      if (scaled[index] < 1.0) {
+        small[smallSize++] = index;
+      } else {
+        large[largeSize++] = index;
+      }
+    }
+
+    // Each small column is topped up to 1 by a large one, which becomes its alias
+    while (smallSize > 0 && largeSize > 0) {
+      final int less = small[--smallSize];
+      final int more = large[--largeSize];
+
+      probabilities[less] = scaled[less];
+      aliases[less] = more;
+
+      scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+
+      if (scaled[more] < 1.0) {
+        small[smallSize++] = more;
+      } else {
+        large[largeSize++] = more;
+      }
+    }
+
+    // Whatever is left is 1 up to rounding error
+    while (largeSize > 0) {
+      probabilities[large[--largeSize]] = 1.0;
+    }
+
+    while (smallSize > 0) {
+      probabilities[small[--smallSize]] = 1.0;
+    }
+  }
+
+  public int size() {
+    return probabilities.length;
+  }
+
+  /**
+   * The probability that a draw returns the index
+   *
+   * @param index The index
+   * @return Its weight as a fraction of the total weight
+   */
+  public double getProbability(final int index) {
+    checkElementIndex(index, weights.length, "index");
+    return weights[index] / totalWeight;
+  }
+
+  public int next() {
+    final ThreadLocalRandom random = ThreadLocalRandom.current();
+    final int column = random.nextInt(probabilities.length);
+
+    return random.nextDouble() < probabilities[column] ? column : aliases[column];
+  }
+
+  public int next(final SplittableRandom random) {
+    checkNotNull(random, "random");
+
+    final int column = random.nextInt(probabilities.length);
+
+    return random.nextDouble() < probabilities[column] ? column : aliases[column];
+  }
+}
@@ -0,0 +1,202 @@
+package org.granite.collections;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.PriorityQueue;
+import org.granite.base.KeyValue;
+import org.granite.base.StringTools;
+
+/**
+ * A BK-tree over a string dictionary. Queries prune whole subtrees using the triangle
+ * inequality, so only a small fraction of the dictionary is compared for small distances.
+ *
+ * Nodes are stored in parallel arrays with first-child/next-sibling links rather than as
+ * objects, which keeps million-entry trees compact.
+ */
+public class BKTreeStringIndex implements FuzzyStringIndex {
+
+  private static final int NONE = -1;
+
+  private final String[] terms;
+  private final int[] firstChild;
+  private final int[] nextSibling;
+  private final int[] edgeDistance;
+  private final int size;
+
+  public BKTreeStringIndex(final Collection<String> dictionary) {
+    checkNotNull(dictionary, "dictionary");
+
+    final Builder builder = new Builder(Math.max(1, dictionary.size()));
+
+    for (String term : dictionary) {
+      builder.insert(checkNotNull(term, "term"));
+    }
+
+    // The finished tree is only ever read, and final fields publish it safely to other threads
+    size = builder.size;
+    terms = Arrays.copyOf(builder.terms, size);
+    firstChild = Arrays.copyOf(builder.firstChild, size);
+    nextSibling = Arrays.copyOf(builder.nextSibling, size);
+    edgeDistance = Arrays.copyOf(builder.edgeDistance, size);
+  }
+
+  @Override
+  public List<KeyValue<String, Integer>> findWithin(final String query, final int maxDistance) {
+    checkNotNull(query, "query");
+    checkArgument(maxDistance >= 0, "maxDistance cannot be negative");
+
+    if (size == 0) {
+      return ImmutableList.of();
+    }
+
+    final List<KeyValue<String, Integer>> result = new ArrayList<>();
+
+    int[] stack = new int[32];
+    int stackSize = 0;
+
+    stack[stackSize++] = 0;
+
+    while (stackSize > 0) {
+      final int node = stack[--stackSize];
+      final int distance = StringTools.levenshtein(query, terms[node]);
+
+      if (distance <= maxDistance) {
+        result.add(new KeyValue<>(terms[node], distance));
+      }
+
+      for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+        if (Math.abs(edgeDistance[child] - distance) <= maxDistance) {
+          if (stackSize == stack.length) {
+            stack = Arrays.copyOf(stack, stackSize << 1);
+          }
+
+          stack[stackSize++] = child;
+        }
+      }
+    }
+
+    result.sort(MATCH_ORDER);
+
+    return result;
+  }
+
+  @Override
+  public List<KeyValue<String, Integer>> findNearest(final String query, final int count) {
+    checkNotNull(query, "query");
+    checkArgument(count > 0, "count must be a positive number");
+
+    if (size == 0) {
+      return ImmutableList.of();
+    }
+
+    // Worst match at the head so it can be evicted as closer ones are found
+    final PriorityQueue<KeyValue<String, Integer>> best = new PriorityQueue<>(
+        count + 1,
+        MATCH_ORDER.reversed());
+
+    int[] stack = new int[32];
+    int stackSize = 0;
+
+    stack[stackSize++] = 0;
+
+    while (stackSize > 0) {
+      final int node = stack[--stackSize];
+      final int distance = StringTools.levenshtein(query, terms[node]);
+
+      best.add(new KeyValue<>(terms[node], distance));
+
+      if (best.size() > count) {
+        best.poll();
+      }
+
+      final int radius = best.size() < count ? Integer.MAX_VALUE : best.peek().getValue();
+
+      for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+        if (Math.abs(edgeDistance[child] - distance) <= radius) {
+          if (stackSize == stack.length) {
+            stack = Arrays.copyOf(stack, stackSize << 1);
+          }
+
+          stack[stackSize++] = child;
+        }
+      }
+    }
+
+    final List<KeyValue<String, Integer>> result = new ArrayList<>(best);
+
+    result.sort(MATCH_ORDER);
+
+    return result;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  private static final class Builder {
+
+    private final String[] terms;
+    private final int[] firstChild;
+    private final int[] nextSibling;
+    private final int[] edgeDistance;
+    private int size;
+
+    private Builder(final int capacity) {
+      terms = new String[capacity];
+      firstChild = new int[capacity];
+      nextSibling = new int[capacity];
+      edgeDistance = new int[capacity];
+    }
+
+    private void insert(final String term) {
+      if (size == 0) {
+        addNode(term, 0);
+        return;
+      }
+
+      int node = 0;
+
+      while (true) {
+        final int distance = StringTools.levenshtein(term, terms[node]);
+
+        if (distance == 0) {
+          // Duplicate
+          return;
+        }
+
+        int child = firstChild[node];
+
+        while (child != NONE && edgeDistance[child] != distance) {
+          child = nextSibling[child];
+        }
+
+        if (child == NONE) {
+          final int added = addNode(term, distance);
+          nextSibling[added] = firstChild[node];
+          firstChild[node] = added;
+          return;
+        }
+
+        node = child;
+      }
+    }
+
+    private int addNode(final String term, final int distance) {
+      final int node = size++;
+
+      terms[node] = term;
+      firstChild[node] = NONE;
+      nextSibling[node] = NONE;
+      edgeDistance[node] = distance;
+
+      return node;
+    }
+  }
+}
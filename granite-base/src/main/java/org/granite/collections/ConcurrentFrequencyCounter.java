@@ -0,0 +1,179 @@
+package org.granite.collections;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.granite.base.KeyValue;
+
+/**
+ * Counts occurrences of keys from many threads at once.
+ *
+ * Each key gets a LongAdder, which spreads concurrent updates over striped cells, so even a
+ * single hot key scales with the number of threads. Incrementing a key that has been seen
+ * before is a lock-free map read followed by an adder update, and allocates nothing. Reads sum
+ * the cells and are not atomic with respect to concurrent increments. Null keys are not
+ * allowed.
+ *
+ * Threads that count in batches can also fill a private {@link FrequencyCounter} and
+ * {@link #merge(FrequencyCounter)} it periodically.
+ *
+ * @param <K> The key type
+ */
+public class ConcurrentFrequencyCounter<K> {
+
+  private final ConcurrentHashMap<K, LongAdder> counts;
+
+  public ConcurrentFrequencyCounter() {
+    this(16);
+  }
+
+  public ConcurrentFrequencyCounter(final int expectedSize) {
+    checkArgument(expectedSize >= 0, "expectedSize cannot be negative");
+
+    this.counts = new ConcurrentHashMap<>(expectedSize);
+  }
+
+  public int size() {
+    return counts.size();
+  }
+
+  public boolean isEmpty() {
+    return counts.isEmpty();
+  }
+
+  public void increment(final K key) {
+    increment(key, 1L);
+  }
+
+  public void increment(final K key, final long delta) {
+    checkNotNull(key, "key");
+
+    // A plain get first, as computeIfAbsent can lock the bin even when the key is present
+    LongAdder adder = counts.get(key);
+
+    if (adder == null) {
+      adder = counts.computeIfAbsent(key, ignored -> new LongAdder());
+    }
+
+    adder.add(delta);
+  }
+
+  public void incrementAll(final Iterable<? extends K> keys, final long delta) {
+    checkNotNull(keys, "keys");
+
+    for (K key : keys) {
+      increment(key, delta);
+    }
+  }
+
+  /**
+   * The count of the key
+   *
+   * @param key The key
+   * @return The count, or 0 if the key was never counted
+   */
+  public long get(final Object key) {
+    if (key == null) {
+      return 0L;
+    }
+
+    final LongAdder adder = counts.get(key);
+    return adder == null ? 0L : adder.sum();
+  }
+
+  public boolean contains(final Object key) {
+    return key != null && counts.containsKey(key);
+  }
+
+  /**
+   * Removes the key. Increments racing with the removal may be lost.
+   *
+   * @param key The key
+   * @return The count the key had, or 0 if it was absent
+   */
+  public long remove(final Object key) {
+    if (key == null) {
+      return 0L;
+    }
+
+    final LongAdder adder = counts.remove(key);
+    return adder == null ? 0L : adder.sum();
+  }
+
+  public void clear() {
+    counts.clear();
+  }
+
+  /**
+   * Adds every count of a counter filled by a single thread
+   *
+   * @param other The counter to merge in
+   * @return This counter
+   */
+  public ConcurrentFrequencyCounter<K> merge(final FrequencyCounter<? extends K> other) {
+    checkNotNull(other, "other");
+
+    other.forEach(this::increment);
+
+    return this;
+  }
+
+  public ConcurrentFrequencyCounter<K> merge(final ConcurrentFrequencyCounter<? extends K> other) {
+    checkNotNull(other, "other");
+
+    other.counts.forEach((key, adder) -> increment(key, adder.sum()));
+
+    return this;
+  }
+
+  /**
+   * Copies the current counts into a single-threaded counter
+   *
+   * @return The copy
+   */
+  public FrequencyCounter<K> snapshot() {
+    final FrequencyCounter<K> result = new FrequencyCounter<>(counts.size());
+
+    counts.forEach((key, adder) -> result.increment(key, adder.sum()));
+
+    return result;
+  }
+
+  public Map<K, Long> toMap() {
+    final Map<K, Long> result = new HashMap<>(Math.max(16, (int) (counts.size() / 0.75f) + 1));
+
+    counts.forEach((key, adder) -> result.put(key, adder.sum()));
+
+    return result;
+  }
+
+  /**
+   * Finds the most frequent keys without copying the whole map. Keys with equal counts are
+   * ranked in no particular order.
+   *
+   * @param n The maximum number of keys to return
+   * @return The keys and their counts, most frequent first
+   */
+  public List<KeyValue<K, Long>> topN(final int n) {
+    checkArgument(n > 0, "n must be a positive number");
+
+    final TopK<KeyValue<K, Long>> topK = new TopK<>(n,
+        new KeyValue.ValueComparator<>(Comparator.<Long>naturalOrder()));
+
+    counts.forEach((key, adder) -> {
+      final long count = adder.sum();
+
+      if (topK.size() < n || count > topK.peekLowest().getValue()) {
+        topK.offer(new KeyValue<>(key, count));
+      }
+    });
+
+    return topK.drainSorted();
+  }
+}
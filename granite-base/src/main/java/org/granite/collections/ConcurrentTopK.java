@@ -0,0 +1,245 @@
+package org.granite.collections;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collector;
+import java.util.stream.Collector.Characteristics;
+
+/**
+ * A thread-safe {@link TopK} for many threads offering into one ranking.
+ *
+ * Elements go to one of several independently locked stripes, each keeping its own top k; the
+ * overall top k is always among the union of the stripes. A thread starts at a stripe chosen
+ * by its id and moves on to the next one whenever a stripe is busy, so threads rarely wait on
+ * each other. Once a stripe is full its lowest element is published, and anything ranked at
+ * or below it is rejected without taking a lock.
+ *
+ * @param <E> The element type
+ */
+public class ConcurrentTopK<E> {
+
+  private final int k;
+  private final Comparator<? super E> comparator;
+
+  private final Stripe<E>[] stripes;
+  private final int mask;
+
+  public ConcurrentTopK(final int k, final Comparator<? super E> comparator) {
+    this(k, comparator, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Constructor
+   *
+   * @param k The number of elements to keep
+   * @param comparator Ranks the elements; the greatest elements are kept
+   * @param stripeCount The number of independently locked stripes, rounded up to a power of two
+   */
+  // Generic arrays can only be created raw
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public ConcurrentTopK(
+      final int k,
+      final Comparator<? super E> comparator,
+      final int stripeCount) {
+    checkArgument(k > 0, "k must be a positive number");
+    checkArgument(stripeCount > 0, "stripeCount must be a positive number");
+
+    this.k = k;
+    this.comparator = checkNotNull(comparator, "comparator");
+
+    final int length = stripeCount == 1 ? 1 : Integer.highestOneBit(stripeCount - 1) << 1;
+
+    this.stripes = new Stripe[length];
+    this.mask = length - 1;
+
+    for (int index = 0; index < length; index++) {
+      stripes[index] = new Stripe<>(new TopK<>(k, comparator));
+    }
+  }
+
+  /**
+   * A concurrent collector: all threads of a parallel stream offer into one shared instance
+   * instead of building and merging a partial result each
+   *
+   * @param k The number of elements to keep
+   * @param comparator Ranks the elements
+   * @param <E> The element type
+   * @return The collector, producing the elements greatest first
+   */
+  public static <E> Collector<E, ?, List<E>> collector(
+      final int k,
+      final Comparator<? super E> comparator) {
+    checkArgument(k > 0, "k must be a positive number");
+    checkNotNull(comparator, "comparator");
+
+    return Collector.of(
+        () -> new ConcurrentTopK<E>(k, comparator),
+        ConcurrentTopK::offer,
+        ConcurrentTopK::merge,
+        ConcurrentTopK::drainSorted,
+        Characteristics.CONCURRENT,
+        Characteristics.UNORDERED);
+  }
+
+  public int getK() {
+    return k;
+  }
+
+  public Comparator<? super E> getComparator() {
+    return comparator;
+  }
+
+  /**
+   * Offers an element
+   *
+   * @param element The element
+   * @return False if the element cannot be among the top k
+   */
+  public boolean offer(final E element) {
+    checkNotNull(element, "element");
+
+    final int start = stripeFor(Thread.currentThread());
+
+    for (int attempt = 0; attempt <= mask; attempt++) {
+      final Stripe<E> stripe = stripes[(start + attempt) & mask];
+      final E threshold = stripe.threshold;
+
+      // A full stripe already holds k better elements
+      if (threshold != null && comparator.compare(element, threshold) <= 0) {
+        return false;
+      }
+
+      if (stripe.lock.tryLock()) {
+        try {
+          return stripe.offer(element);
+        } finally {
+          stripe.lock.unlock();
+        }
+      }
+    }
+
+    final Stripe<E> stripe = stripes[start];
+
+    stripe.lock.lock();
+    try {
+      return stripe.offer(element);
+    } finally {
+      stripe.lock.unlock();
+    }
+  }
+
+  public boolean offerAll(final Iterable<? extends E> elements) {
+    checkNotNull(elements, "elements");
+
+    boolean changed = false;
+
+    for (E element : elements) {
+      changed |= offer(element);
+    }
+
+    return changed;
+  }
+
+  /**
+   * Offers every element retained by another instance. The other instance is left unchanged.
+   *
+   * @param other The instance to merge in
+   * @return This instance
+   */
+  public ConcurrentTopK<E> merge(final ConcurrentTopK<? extends E> other) {
+    checkNotNull(other, "other");
+
+    offerAll(other.snapshot().drainSorted());
+
+    return this;
+  }
+
+  /**
+   * Copies the current top k without changing the instance
+   *
+   * @return The elements, greatest first
+   */
+  public List<E> toSortedList() {
+    return snapshot().drainSorted();
+  }
+
+  /**
+   * Removes all retained elements
+   *
+   * @return The top k elements, greatest first
+   */
+  public List<E> drainSorted() {
+    final TopK<E> result = new TopK<>(k, comparator);
+
+    for (Stripe<E> stripe : stripes) {
+      stripe.lock.lock();
+      try {
+        result.merge(stripe.topK);
+        stripe.topK.clear();
+        stripe.threshold = null;
+      } finally {
+        stripe.lock.unlock();
+      }
+    }
+
+    return result.drainSorted();
+  }
+
+  public void clear() {
+    for (Stripe<E> stripe : stripes) {
+      stripe.lock.lock();
+      try {
+        stripe.topK.clear();
+        stripe.threshold = null;
+      } finally {
+        stripe.lock.unlock();
+      }
+    }
+  }
+
+  private TopK<E> snapshot() {
+    final TopK<E> result = new TopK<>(k, comparator);
+
+    for (Stripe<E> stripe : stripes) {
+      stripe.lock.lock();
+      try {
+        result.merge(stripe.topK);
+      } finally {
+        stripe.lock.unlock();
+      }
+    }
+
+    return result;
+  }
+
+  private int stripeFor(final Thread thread) {
+    final int hash = (int) thread.getId() * 0x9E3779B9;
+    return (hash ^ (hash >>> 16)) & mask;
+  }
+
+  private static final class Stripe<E> {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final TopK<E> topK;
+
+    private volatile E threshold;
+
+    private Stripe(final TopK<E> topK) {
+      this.topK = topK;
+    }
+
+    private boolean offer(final E element) {
+      final boolean accepted = topK.offer(element);
+
+      if (topK.size() == topK.getK()) {
+        threshold = topK.peekLowest();
+      }
+
+      return accepted;
+    }
+  }
+}
@@ -0,0 +1,229 @@
+package org.granite.collections;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Estimates the frequency of items in a fixed amount of memory, however many distinct items
+ * are counted.
+ *
+ * Each item maps to one counter in each of depth rows of width counters. Updates are
+ * conservative: only the counters below the item's new estimate are raised, which keeps
+ * overestimates from colliding items much lower than the classic update without breaking the
+ * guarantee that estimates never undercount. With width = ceil(e / epsilon) and
+ * depth = ceil(ln(1 / delta)), an estimate exceeds the true count by more than
+ * epsilon * getTotalCount() with probability at most delta.
+ *
+ * Items are hashed from their characters or long value with a seeded function that does not
+ * depend on the JVM, so sketches built with the same dimensions and seed on different threads
+ * or nodes can be merged, including after a round trip through {@link #toByteArray()}. Merged
+ * sketches remain upper bounds. Instances are not thread safe.
+ */
+public class CountMinSketch {
+
+  private static final int FORMAT = 1;
+  private static final int HEADER_BYTES = 28;
+
+  private final int width;
+  private final int depth;
+  private final long seed;
+
+  private final long[] counters;
+  private long totalCount;
+
+  /**
+   * Constructor
+   *
+   * @param width The number of counters per row
+   * @param depth The number of rows
+   * @param seed Seeds the hash functions; only sketches with equal seeds can be merged
+   */
+  public CountMinSketch(final int width, final int depth, final long seed) {
+    checkArgument(width > 0, "width must be a positive number");
+    checkArgument(depth > 0, "depth must be a positive number");
+    checkArgument((long) width * depth <= (Integer.MAX_VALUE - HEADER_BYTES) / 8,
+        "Sketch is too large");
+
+    this.width = width;
+    this.depth = depth;
+    this.seed = seed;
+    this.counters = new long[width * depth];
+  }
+
+  /**
+   * Sizes a sketch for the given error bounds
+   *
+   * @param epsilon The error, as a fraction of the total count
+   * @param delta The probability that an estimate exceeds the error
+   * @param seed Seeds the hash functions
+   * @return The empty sketch
+   */
+  public static CountMinSketch forErrorBounds(
+      final double epsilon,
+      final double delta,
+      final long seed) {
+    checkArgument(epsilon > 0.0 && epsilon < 1.0, "epsilon must be between 0 and 1");
+    checkArgument(delta > 0.0 && delta < 1.0, "delta must be between 0 and 1");
+
+    return new CountMinSketch(
+        (int) Math.ceil(Math.E / epsilon),
+        (int) Math.ceil(Math.log(1.0 / delta)),
+        seed);
+  }
+
+  public static CountMinSketch fromByteArray(final byte[] bytes) {
+    checkNotNull(bytes, "bytes");
+    checkArgument(bytes.length >= HEADER_BYTES, "Not a serialized sketch");
+
+    final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+
+    checkArgument(buffer.getInt() == FORMAT, "Unknown sketch format");
+
+    final int width = buffer.getInt();
+    final int depth = buffer.getInt();
+    final long expected = HEADER_BYTES + (long) width * depth * 8L;
+
+    checkArgument(width > 0 && depth > 0 && bytes.length == expected,
+        "Serialized sketch has %s bytes, expected %s", bytes.length, expected);
+
+    final CountMinSketch result = new CountMinSketch(width, depth, buffer.getLong());
+
+    result.totalCount = buffer.getLong();
+    buffer.asLongBuffer().get(result.counters);
+
+    return result;
+  }
+
+  public int getWidth() {
+    return width;
+  }
+
+  public int getDepth() {
+    return depth;
+  }
+
+  public long getSeed() {
+    return seed;
+  }
+
+  public long getTotalCount() {
+    return totalCount;
+  }
+
+  public void add(final CharSequence item) {
+    add(item, 1L);
+  }
+
+  public void add(final CharSequence item, final long count) {
+    checkNotNull(item, "item");
+    update(hash(item), count);
+  }
+
+  public void add(final long item, final long count) {
+    update(hash(item), count);
+  }
+
+  /**
+   * Estimates the number of times the item was added
+   *
+   * @param item The item
+   * @return An estimate that is never below the true count
+   */
+  public long estimate(final CharSequence item) {
+    checkNotNull(item, "item");
+    return minimum(hash(item));
+  }
+
+  public long estimate(final long item) {
+    return minimum(hash(item));
+  }
+
+  /**
+   * Adds the counts of another sketch with the same dimensions and seed
+   *
+   * @param other The sketch to merge in
+   * @return This sketch
+   */
+  public CountMinSketch merge(final CountMinSketch other) {
+    checkNotNull(other, "other");
+    checkArgument(other.width == width && other.depth == depth && other.seed == seed,
+        "Only sketches with the same dimensions and seed can be merged");
+
+    for (int index = 0; index < counters.length; index++) {
+      counters[index] += other.counters[index];
+    }
+
+    totalCount += other.totalCount;
+
+    return this;
+  }
+
+  public byte[] toByteArray() {
+    final ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + counters.length * 8);
+
+    buffer.putInt(FORMAT).putInt(width).putInt(depth).putLong(seed).putLong(totalCount);
+    buffer.asLongBuffer().put(counters);
+
+    return buffer.array();
+  }
+
+  private void update(final long hash, final long count) {
+    checkArgument(count >= 0, "count cannot be negative");
+
+    final long target = minimum(hash) + count;
+
+    for (int row = 0; row < depth; row++) {
+      final int index = index(hash, row);
+
+      if (counters[index] < target) {
+        counters[index] = target;
+      }
+    }
+
+    totalCount += count;
+  }
+
+  private long minimum(final long hash) {
+    long result = Long.MAX_VALUE;
+
+    for (int row = 0; row < depth; row++) {
+      result = Math.min(result, counters[index(hash, row)]);
+    }
+
+    return result;
+  }
+
+  /**
+   * Derives the counter of a row from the two halves of the item hash
+   */
+  private int index(final long hash, final int row) {
+    final int combined = (int) hash + row * ((int) (hash >>> 32) | 1);
+    return row * width + (combined & Integer.MAX_VALUE) % width;
+  }
+
+  private long hash(final CharSequence item) {
+    long hash = seed ^ 0xcbf29ce484222325L;
+
+    for (int index = 0; index < item.length(); index++) {
+      hash = (hash ^ item.charAt(index)) * 0x100000001B3L;
+    }
+
+    return mix(hash ^ item.length());
+  }
+
+  private long hash(final long item) {
+    return mix(item ^ (seed * 0x9E3779B97F4A7C15L));
+  }
+
+  private static long mix(final long value) {
+    long mixed = value;
+    mixed ^= mixed >>> 33;
+    mixed *= 0xff51afd7ed558ccdL;
+    mixed ^= mixed >>> 33;
+    mixed *= 0xc4ceb9fe1a85ec53L;
+    mixed ^= mixed >>> 33;
+    return mixed;
+  }
+}
@@ -0,0 +1,303 @@
+package org.granite.collections;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ObjLongConsumer;
+import org.granite.base.KeyValue;
+
+/**
+ * Counts occurrences of keys in primitive longs.
+ *
+ * Keys and counts are held in parallel arrays with linear probing, so incrementing an existing
+ * key touches two arrays and allocates nothing, and counts do not overflow at
+ * Integer.MAX_VALUE as the Map&lt;K, Integer&gt; form of {@link MapTools#updateFrequencyMap}
+ * can. Null keys are not allowed. Instances are not thread safe; see
+ * {@link ConcurrentFrequencyCounter} for counting from many threads.
+ *
+ * @param <K> The key type
+ */
+public class FrequencyCounter<K> {
+
+  private static final float LOAD_FACTOR = 0.75f;
+  private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+  private Object[] keys;
+  private long[] counts;
+
+  private int mask;
+  private int size;
+  private int resizeAt;
+
+  public FrequencyCounter() {
+    this(16);
+  }
+
+  public FrequencyCounter(final int expectedSize) {
+    checkArgument(expectedSize >= 0, "expectedSize cannot be negative");
+
+    final long needed = (long) Math.ceil(Math.max(expectedSize, 2) / (double) LOAD_FACTOR) + 1;
+
+    allocate(needed >= MAXIMUM_CAPACITY ? MAXIMUM_CAPACITY
+        : Integer.highestOneBit((int) needed - 1) << 1);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public long increment(final K key) {
+    return increment(key, 1L);
+  }
+
+  /**
+   * Adds to the count of the key
+   *
+   * @param key The key
+   * @param delta The amount to add
+   * @return The new count
+   */
+  public long increment(final K key, final long delta) {
+    checkNotNull(key, "key");
+
+    int slot = spread(key.hashCode()) & mask;
+
+    while (true) {
+      final Object slotKey = keys[slot];
+
+      if (slotKey == null) {
+        break;
+      }
+
+      if (slotKey.equals(key)) {
+        return counts[slot] += delta;
+      }
+
+      slot = (slot + 1) & mask;
+    }
+
+    // At MAXIMUM_CAPACITY the table cannot grow, and probes need an empty slot to stop at
+    checkState(size < mask, "table is full");
+
+    keys[slot] = key;
+    counts[slot] = delta;
+
+    if (++size >= resizeAt && mask + 1 < MAXIMUM_CAPACITY) {
+      rehash((mask + 1) << 1);
+    }
+
+    return delta;
+  }
+
+  public void incrementAll(final Iterable<? extends K> keys, final long delta) {
+    checkNotNull(keys, "keys");
+
+    for (K key : keys) {
+      increment(key, delta);
+    }
+  }
+
+  /**
+   * The count of the key
+   *
+   * @param key The key
+   * @return The count, or 0 if the key was never counted
+   */
+  public long get(final Object key) {
+    final int slot = find(key);
+    return slot < 0 ? 0L : counts[slot];
+  }
+
+  public boolean contains(final Object key) {
+    return find(key) >= 0;
+  }
+
+  /**
+   * Removes the key
+   *
+   * @param key The key
+   * @return The count the key had, or 0 if it was absent
+   */
+  public long remove(final Object key) {
+    final int slot = find(key);
+
+    if (slot < 0) {
+      return 0L;
+    }
+
+    final long previous = counts[slot];
+
+    size--;
+    shiftBack(slot);
+
+    return previous;
+  }
+
+  public void clear() {
+    Arrays.fill(keys, null);
+    Arrays.fill(counts, 0L);
+    size = 0;
+  }
+
+  @SuppressWarnings("unchecked")
+  public void forEach(final ObjLongConsumer<? super K> action) {
+    checkNotNull(action, "action");
+
+    for (int slot = 0; slot <= mask; slot++) {
+      if (keys[slot] != null) {
+        action.accept((K) keys[slot], counts[slot]);
+      }
+    }
+  }
+
+  /**
+   * Adds every count of another counter to this one
+   *
+   * @param other The counter to merge in
+   * @return This counter
+   */
+  public FrequencyCounter<K> merge(final FrequencyCounter<? extends K> other) {
+    checkNotNull(other, "other");
+
+    other.forEach(this::increment);
+
+    return this;
+  }
+
+  /**
+   * Finds the most frequent keys. A key object is only wrapped once its count can enter the
+   * result; keys with equal counts are ranked in no particular order.
+   *
+   * @param n The maximum number of keys to return
+   * @return The keys and their counts, most frequent first
+   */
+  @SuppressWarnings("unchecked")
+  public List<KeyValue<K, Long>> topN(final int n) {
+    checkArgument(n > 0, "n must be a positive number");
+
+    final TopK<KeyValue<K, Long>> topK = new TopK<>(n,
+        new KeyValue.ValueComparator<>(Comparator.<Long>naturalOrder()));
+
+    for (int slot = 0; slot <= mask; slot++) {
+      if (keys[slot] == null) {
+        continue;
+      }
+
+      final KeyValue<K, Long> lowest = topK.peekLowest();
+
+      if (topK.size() < n || counts[slot] > lowest.getValue()) {
+        topK.offer(new KeyValue<>((K) keys[slot], counts[slot]));
+      }
+    }
+
+    return topK.drainSorted();
+  }
+
+  public Map<K, Long> toMap() {
+    final Map<K, Long> result = new HashMap<>(Math.max(16, (int) (size / 0.75f) + 1));
+    forEach(result::put);
+    return result;
+  }
+
+  private int find(final Object key) {
+    if (key == null) {
+      return -1;
+    }
+
+    int slot = spread(key.hashCode()) & mask;
+
+    while (true) {
+      final Object slotKey = keys[slot];
+
+      if (slotKey == null) {
+        return -1;
+      }
+
+      if (slotKey.equals(key)) {
+        return slot;
+      }
+
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  /**
+   * Closes the gap left at the slot by moving back later entries of the probe run whose home
+   * slot is not between the gap and their current position
+   */
+  private void shiftBack(final int gap) {
+    int free = gap;
+    int slot = gap;
+
+    while (true) {
+      slot = (slot + 1) & mask;
+
+      final Object slotKey = keys[slot];
+
+      if (slotKey == null) {
+        break;
+      }
+
+      final int home = spread(slotKey.hashCode()) & mask;
+
+      final boolean stays = free <= slot
+          ? free < home && home <= slot
+          : free < home || home <= slot;
+
+      if (!stays) {
+        keys[free] = slotKey;
+        counts[free] = counts[slot];
+        free = slot;
+      }
+    }
+
+    keys[free] = null;
+    counts[free] = 0L;
+  }
+
+  private void rehash(final int capacity) {
+    final Object[] oldKeys = keys;
+    final long[] oldCounts = counts;
+
+    allocate(capacity);
+
+    for (int oldSlot = 0; oldSlot < oldKeys.length; oldSlot++) {
+      final Object key = oldKeys[oldSlot];
+
+      if (key == null) {
+        continue;
+      }
+
+      int slot = spread(key.hashCode()) & mask;
+
+      while (keys[slot] != null) {
+        slot = (slot + 1) & mask;
+      }
+
+      keys[slot] = key;
+      counts[slot] = oldCounts[oldSlot];
+    }
+  }
+
+  private void allocate(final int capacity) {
+    keys = new Object[capacity];
+    counts = new long[capacity];
+    mask = capacity - 1;
+    resizeAt = Math.min(capacity - 1, (int) (capacity * LOAD_FACTOR));
+  }
+
+  private static int spread(final int hash) {
+    final int mixed = hash * 0x9E3779B9;
+    return mixed ^ (mixed >>> 16);
+  }
+}
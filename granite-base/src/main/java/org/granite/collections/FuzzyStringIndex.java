@@ -0,0 +1,39 @@
+package org.granite.collections;
+
+import java.util.Comparator;
+import java.util.List;
+import org.granite.base.KeyValue;
+
+/**
+ * A dictionary of strings that can be searched by levenshtein distance. Implementations are
+ * immutable once built and safe for concurrent queries.
+ */
+public interface FuzzyStringIndex {
+
+  /**
+   * Orders matches by ascending distance, then by term
+   */
+  Comparator<KeyValue<String, Integer>> MATCH_ORDER = Comparator
+      .comparing((KeyValue<String, Integer> match) -> match.getValue())
+      .thenComparing(KeyValue::getKey);
+
+  /**
+   * Finds every entry within the given distance of the query
+   *
+   * @param query The string to search for
+   * @param maxDistance The inclusive distance limit
+   * @return Entry to distance pairs in {@link #MATCH_ORDER}
+   */
+  List<KeyValue<String, Integer>> findWithin(String query, int maxDistance);
+
+  /**
+   * Finds the entries closest to the query
+   *
+   * @param query The string to search for
+   * @param count The maximum number of entries to return
+   * @return Entry to distance pairs in {@link #MATCH_ORDER}
+   */
+  List<KeyValue<String, Integer>> findNearest(String query, int count);
+
+  int size();
+}
@@ -4,7 +4,6 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.collect.ImmutableList;
 import java.util.List;
-import java.util.Random;
 import org.granite.math.MathTools;
 
 public class ListTools {
@@ -102,7 +101,7 @@ public class ListTools {
   ) {
     checkNotNull(source, "source");
 
-    return source.isEmpty() ? null : source.get(new Random().nextInt(source.size()));
+    return SamplingTools.pick(source);
   }
 
   public static <T> boolean listsMatch(
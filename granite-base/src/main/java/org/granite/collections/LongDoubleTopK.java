@@ -0,0 +1,250 @@
+package org.granite.collections;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.granite.base.KeyValue;
+
+/**
+ * Keeps the k best (id, score) pairs offered to it, without boxing either value.
+ *
+ * Ids and scores live in parallel arrays that form a binary heap with the weakest retained
+ * pair at the root, so offering a pair never allocates once the arrays have grown to k. Pairs
+ * with equal scores are ranked by id, the lower id first, which makes the result independent of
+ * the order in which pairs are offered.
+ *
+ * Instances are not thread safe.
+ */
+public class LongDoubleTopK {
+
+  private final int k;
+  private final boolean highest;
+
+  private long[] ids;
+  private double[] scores;
+  private int size;
+
+  /**
+   * Constructor
+   *
+   * @param k The number of pairs to keep
+   * @param highest Set to true to keep the highest scores or false to keep the lowest
+   */
+  public LongDoubleTopK(final int k, final boolean highest) {
+    checkArgument(k > 0, "k must be a positive number");
+
+    this.k = k;
+    this.highest = highest;
+    this.ids = new long[Math.min(k, 16)];
+    this.scores = new double[ids.length];
+  }
+
+  public int getK() {
+    return k;
+  }
+
+  public boolean isHighest() {
+    return highest;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Offers a pair
+   *
+   * @param id The id
+   * @param score The score, which cannot be NaN
+   * @return True if the pair is now among the best k
+   */
+  public boolean offer(final long id, final double score) {
+    checkArgument(!Double.isNaN(score), "score cannot be NaN");
+
+    if (size < k) {
+      if (size == ids.length) {
+        final int capacity = Math.min(k, ids.length << 1);
+
+        ids = Arrays.copyOf(ids, capacity);
+        scores = Arrays.copyOf(scores, capacity);
+      }
+
+      siftUp(size++, id, score);
+      return true;
+    }
+
+    if (compare(id, score, ids[0], scores[0]) <= 0) {
+      return false;
+    }
+
+    siftDown(0, id, score);
+    return true;
+  }
+
+  /**
+   * Offers every pair retained by another instance, as when combining the partial results of
+   * parallel workers. The other instance is left unchanged.
+   *
+   * @param other An instance with the same ordering
+   * @return This instance
+   */
+  public LongDoubleTopK merge(final LongDoubleTopK other) {
+    checkNotNull(other, "other");
+    checkArgument(other.highest == highest, "Cannot merge instances with different orderings");
+
+    for (int index = 0; index < other.size; index++) {
+      offer(other.ids[index], other.scores[index]);
+    }
+
+    return this;
+  }
+
+  /**
+   * The id of the weakest retained pair, which a newcomer must beat once the top k is full
+   *
+   * @return The id
+   */
+  public long peekLowestId() {
+    checkState(size > 0, "No pairs have been offered");
+    return ids[0];
+  }
+
+  public double peekLowestScore() {
+    checkState(size > 0, "No pairs have been offered");
+    return scores[0];
+  }
+
+  /**
+   * Removes all retained pairs, sorting them in place and copying them out best first
+   *
+   * @param idDestination Receives the ids, which needs room for size() elements
+   * @param scoreDestination Receives the scores, which needs room for size() elements
+   * @return The number of pairs written
+   */
+  public int drainSorted(final long[] idDestination, final double[] scoreDestination) {
+    checkNotNull(idDestination, "idDestination");
+    checkNotNull(scoreDestination, "scoreDestination");
+    checkArgument(idDestination.length >= size && scoreDestination.length >= size,
+        "Destinations must hold %s pairs", size);
+
+    final int count = sortInPlace();
+
+    System.arraycopy(ids, 0, idDestination, 0, count);
+    System.arraycopy(scores, 0, scoreDestination, 0, count);
+
+    return count;
+  }
+
+  /**
+   * Removes all retained pairs as the KeyValue form used with {@link EvictingTreeSet}
+   *
+   * @return The pairs, best first
+   */
+  public List<KeyValue<Long, Double>> drainSorted() {
+    final int count = sortInPlace();
+    final List<KeyValue<Long, Double>> result = new ArrayList<>(count);
+
+    for (int index = 0; index < count; index++) {
+      result.add(new KeyValue<>(ids[index], scores[index]));
+    }
+
+    return result;
+  }
+
+  public void clear() {
+    size = 0;
+  }
+
+  /**
+   * Heap-sorts the pairs so the best is at index 0 and empties the heap
+   *
+   * @return The number of pairs
+   */
+  private int sortInPlace() {
+    final int count = size;
+
+    while (size > 1) {
+      final long lowestId = ids[0];
+      final double lowestScore = scores[0];
+
+      size--;
+      siftDown(0, ids[size], scores[size]);
+
+      ids[size] = lowestId;
+      scores[size] = lowestScore;
+    }
+
+    size = 0;
+
+    return count;
+  }
+
+  /**
+   * Ranks two pairs
+   *
+   * @return A positive number if the first pair ranks above the second
+   */
+  private int compare(
+      final long firstId,
+      final double firstScore,
+      final long secondId,
+      final double secondScore) {
+    final int byScore = highest
+        ? Double.compare(firstScore, secondScore)
+        : Double.compare(secondScore, firstScore);
+
+    return byScore != 0 ? byScore : Long.compare(secondId, firstId);
+  }
+
+  private void siftUp(final int start, final long id, final double score) {
+    int index = start;
+
+    while (index > 0) {
+      final int parent = (index - 1) >>> 1;
+
+      if (compare(id, score, ids[parent], scores[parent]) >= 0) {
+        break;
+      }
+
+      ids[index] = ids[parent];
+      scores[index] = scores[parent];
+      index = parent;
+    }
+
+    ids[index] = id;
+    scores[index] = score;
+  }
+
+  private void siftDown(final int start, final long id, final double score) {
+    int index = start;
+    final int half = size >>> 1;
+
+    while (index < half) {
+      int child = (index << 1) + 1;
+
+      if (child + 1 < size
+          && compare(ids[child + 1], scores[child + 1], ids[child], scores[child]) < 0) {
+        child++;
+      }
+
+      if (compare(id, score, ids[child], scores[child]) <= 0) {
+        break;
+      }
+
+      ids[index] = ids[child];
+      scores[index] = scores[child];
+      index = child;
+    }
+
+    ids[index] = id;
+    scores[index] = score;
+  }
+}
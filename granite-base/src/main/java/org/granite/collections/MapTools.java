@@ -3,6 +3,7 @@ package org.granite.collections;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.collect.ImmutableMap;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Function;
@@ -31,16 +32,111 @@ public class MapTools {
             (v1, v2) -> v1 + v2));
   }
 
-  public static <V1, V2> Map<String, String> intersectKeysCaseInsensitive(
+  public static <K> void updateFrequencyMap(final Iterable<? extends K> keys,
+      final FrequencyCounter<K> frequencyCounter,
+      final long increment) {
+    checkNotNull(keys, "keys");
+    checkNotNull(frequencyCounter, "frequencyCounter");
+
+    frequencyCounter.incrementAll(keys, increment);
+  }
+
+  public static <K> void updateFrequencyMap(final Map<? extends K, Integer> sourceFrequencyMap,
+      final FrequencyCounter<K> destinationFrequencyCounter) {
+    checkNotNull(sourceFrequencyMap, "sourceFrequencyMap");
+    checkNotNull(destinationFrequencyCounter, "destinationFrequencyCounter");
+
+    sourceFrequencyMap
+        .forEach((key, count) -> destinationFrequencyCounter.increment(key, count));
+  }
+
+  public static <K> void updateFrequencyMap(
+      final FrequencyCounter<? extends K> sourceFrequencyCounter,
+      final FrequencyCounter<K> destinationFrequencyCounter) {
+    checkNotNull(sourceFrequencyCounter, "sourceFrequencyCounter");
+    checkNotNull(destinationFrequencyCounter, "destinationFrequencyCounter");
+
+    destinationFrequencyCounter.merge(sourceFrequencyCounter);
+  }
+
+  public static <K> void updateFrequencyMap(final Iterable<? extends K> keys,
+      final ConcurrentFrequencyCounter<K> frequencyCounter,
+      final long increment) {
+    checkNotNull(keys, "keys");
+    checkNotNull(frequencyCounter, "frequencyCounter");
+
+    frequencyCounter.incrementAll(keys, increment);
+  }
+
+  public static <K> void updateFrequencyMap(
+      final FrequencyCounter<? extends K> sourceFrequencyCounter,
+      final ConcurrentFrequencyCounter<K> destinationFrequencyCounter) {
+    checkNotNull(sourceFrequencyCounter, "sourceFrequencyCounter");
+    checkNotNull(destinationFrequencyCounter, "destinationFrequencyCounter");
+
+    destinationFrequencyCounter.merge(sourceFrequencyCounter);
+  }
+
+  /**
+   * Pairs each key of map1 with a key of map2 that is equal to it ignoring case, as defined by
+   * String.equalsIgnoreCase. Keys of map2 that are not strings never match.
+   *
+   * Only the keys of the smaller map are indexed, by reference, and the larger map is probed
+   * with a case-insensitive hash, so no key is lowercased or copied. When several keys of map2
+   * differ only by case, any one of them may be chosen.
+   *
+   * @param map1 The map whose keys are returned as the result keys
+   * @param map2 The map whose keys are returned as the result values
+   * @return The matching keys
+   */
+  @SuppressWarnings("unchecked")
+  public static <V1, K2, V2> Map<String, K2> intersectKeysCaseInsensitive(
       final Map<String, V1> map1,
-      final Map<String, V2> map2
+      final Map<K2, V2> map2
   ) {
-    return intersectKeys(
-        map1,
-        map2,
-        String::toLowerCase,
-        String::toLowerCase
-    );
+    checkNotNull(map1, "map1");
+    checkNotNull(map2, "map2");
+
+    if (map1.isEmpty() || map2.isEmpty()) {
+      return ImmutableMap.of();
+    }
+
+    final Map<String, K2> result = new HashMap<>();
+
+    if (map1.size() <= map2.size()) {
+      final CaseInsensitiveIndex index = new CaseInsensitiveIndex(map1.keySet());
+
+      for (K2 key2 : map2.keySet()) {
+        if (!(key2 instanceof String)) {
+          continue;
+        }
+
+        final int hash = CaseInsensitiveIndex.hash((String) key2);
+
+        // Every key of map1 that differs only by case matches
+        for (int slot = index.find((String) key2, hash, -1);
+            slot >= 0;
+            slot = index.find((String) key2, hash, slot)) {
+          result.put(index.keys[slot], key2);
+        }
+      }
+    } else {
+      final CaseInsensitiveIndex index = new CaseInsensitiveIndex(map2.keySet());
+
+      for (String key1 : map1.keySet()) {
+        if (key1 == null) {
+          continue;
+        }
+
+        final int slot = index.find(key1, CaseInsensitiveIndex.hash(key1), -1);
+
+        if (slot >= 0) {
+          result.put(key1, (K2) index.keys[slot]);
+        }
+      }
+    }
+
+    return result;
   }
 
   public static <K1, V1, K2, V2, K3> Map<K1, K2> intersectKeys(
@@ -96,4 +192,84 @@ public class MapTools {
         .map(entry -> String.valueOf(entry.getKey()) + " -> " + String.valueOf(entry.getValue()))
         .forEach(System.out::println);
   }
+
+  /**
+   * An open addressing table of string keys, hashed and compared ignoring case
+   */
+  private static final class CaseInsensitiveIndex {
+
+    private final String[] keys;
+    private final int[] hashes;
+    private final int mask;
+
+    private CaseInsensitiveIndex(final Collection<?> source) {
+      // At most half full
+      final int capacity = Integer.highestOneBit(Math.max(2, source.size()) * 2 - 1) << 1;
+
+      this.keys = new String[capacity];
+      this.hashes = new int[capacity];
+      this.mask = capacity - 1;
+
+      for (Object key : source) {
+        if (key instanceof String) {
+          final int hash = hash((String) key);
+          int slot = hash & mask;
+
+          while (keys[slot] != null) {
+            slot = (slot + 1) & mask;
+          }
+
+          keys[slot] = (String) key;
+          hashes[slot] = hash;
+        }
+      }
+    }
+
+    /**
+     * Finds the next slot after the given one holding a key equal to the key ignoring case
+     *
+     * @param key The key to look up
+     * @param hash The hash of the key
+     * @param after The slot of the previous match, or -1 to find the first
+     * @return The slot, or -1 once there are no more matches
+     */
+    private int find(final String key, final int hash, final int after) {
+      int slot = after < 0 ? hash & mask : (after + 1) & mask;
+
+      while (keys[slot] != null) {
+        if (hashes[slot] == hash && keys[slot].equalsIgnoreCase(key)) {
+          return slot;
+        }
+
+        slot = (slot + 1) & mask;
+      }
+
+      return -1;
+    }
+
+    /**
+     * Hashes the characters folded the way String.equalsIgnoreCase compares them, so that keys
+     * equal ignoring case always share a hash
+     */
+    private static int hash(final String key) {
+      int hash = 0;
+
+      for (int index = 0; index < key.length(); index++) {
+        final char c = key.charAt(index);
+        final char folded;
+
+        if (c < 0x80) {
+          folded = c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        } else {
+          folded = Character.toLowerCase(Character.toUpperCase(c));
+        }
+
+        hash = 31 * hash + folded;
+      }
+
+      hash *= 0x9E3779B9;
+
+      return hash ^ (hash >>> 16);
+    }
+  }
 }
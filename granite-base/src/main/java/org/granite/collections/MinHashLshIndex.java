@@ -0,0 +1,376 @@
+package org.granite.collections;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.granite.math.MinHash;
+
+/**
+ * A banded locality-sensitive hashing index over MinHash signatures.
+ *
+ * Each signature is cut into bands of rows and documents whose signatures agree on every row
+ * of at least one band become candidates, which are then verified against the estimated
+ * Jaccard similarity. Documents with similarity s collide in at least one band with probability
+ * 1 - (1 - s^rows)^bands, so the band layout sets the threshold at which pairs are found.
+ *
+ * Signatures of text that normalized to nothing, which MinHash fills with Integer.MAX_VALUE,
+ * are stored but never bucketed, so they are never candidates and never match a query. Each
+ * pair is verified only in the first band on which the two signatures agree, so no set of seen
+ * pairs is kept, and buckets are chains of ids in primitive tables.
+ *
+ * Adding signatures is not thread safe; queries may run concurrently once the index is built.
+ */
+public class MinHashLshIndex {
+
+  private static final int NONE = -1;
+
+  private final int bands;
+  private final int rows;
+
+  private final List<int[]> signatures = new ArrayList<>();
+  private final Band[] buckets;
+
+  public MinHashLshIndex(final int bands, final int rows) {
+    checkArgument(bands > 0, "bands must be a positive number");
+    checkArgument(rows > 0, "rows must be a positive number");
+
+    this.bands = bands;
+    this.rows = rows;
+    this.buckets = new Band[bands];
+
+    for (int band = 0; band < bands; band++) {
+      buckets[band] = new Band();
+    }
+  }
+
+  /**
+   * Chooses the band layout whose collision threshold, (1 / bands)^(1 / rows), is closest to
+   * the requested similarity
+   *
+   * @param numHashes The signature length, which bands * rows may not exceed
+   * @param threshold The Jaccard similarity of interest
+   * @return An empty index
+   */
+  public static MinHashLshIndex forThreshold(final int numHashes, final double threshold) {
+    checkArgument(numHashes > 0, "numHashes must be a positive number");
+    checkArgument(threshold > 0.0 && threshold < 1.0, "threshold must be between 0 and 1");
+
+    int bestRows = 1;
+    double bestError = Double.MAX_VALUE;
+
+    for (int rows = 1; rows <= numHashes; rows++) {
+      final int bands = numHashes / rows;
+      final double error = Math.abs(Math.pow(1.0 / bands, 1.0 / rows) - threshold);
+
+      if (error < bestError) {
+        bestError = error;
+        bestRows = rows;
+      }
+    }
+
+    return new MinHashLshIndex(numHashes / bestRows, bestRows);
+  }
+
+  public int getBands() {
+    return bands;
+  }
+
+  public int getRows() {
+    return rows;
+  }
+
+  public int size() {
+    return signatures.size();
+  }
+
+  /**
+   * Adds a signature to the index
+   *
+   * @param signature A signature with at least bands * rows hashes, of which the index keeps a
+   *     copy of the first bands * rows
+   * @return The id of the document, assigned sequentially from 0
+   */
+  public int add(final int[] signature) {
+    checkNotNull(signature, "signature");
+    checkArgument(signature.length >= bands * rows,
+        "signature must have at least %s hashes", bands * rows);
+
+    final int id = signatures.size();
+
+    // Copied so that callers can reuse a signature buffer
+    signatures.add(Arrays.copyOf(signature, bands * rows));
+
+    if (isEmpty(signature)) {
+      return id;
+    }
+
+    for (int band = 0; band < bands; band++) {
+      buckets[band].add(bandHash(signature, band), id);
+    }
+
+    return id;
+  }
+
+  public int[] getSignature(final int id) {
+    checkElementIndex(id, signatures.size(), "id");
+    return signatures.get(id).clone();
+  }
+
+  /**
+   * Finds the indexed documents that share a band with the signature and whose estimated
+   * similarity is at least the threshold
+   *
+   * @param signature The signature to look up
+   * @param threshold The minimum estimated Jaccard similarity
+   * @return Matching document ids, in ascending order
+   */
+  public List<Integer> query(final int[] signature, final double threshold) {
+    checkNotNull(signature, "signature");
+    checkArgument(signature.length >= bands * rows,
+        "signature must have at least %s hashes", bands * rows);
+
+    final List<Integer> result = new ArrayList<>();
+
+    if (isEmpty(signature)) {
+      return result;
+    }
+
+    for (int band = 0; band < bands; band++) {
+      final Band bandBuckets = buckets[band];
+
+      for (int id = bandBuckets.head(bandHash(signature, band));
+          id != NONE;
+          id = bandBuckets.next[id]) {
+        final int[] candidate = signatures.get(id);
+
+        if (firstSharedBand(signature, candidate) == band
+            && similarity(signature, candidate) >= threshold) {
+          result.add(id);
+        }
+      }
+    }
+
+    // Buckets chain the newest id first
+    result.sort(null);
+
+    return result;
+  }
+
+  /**
+   * Finds every pair of indexed documents that share a band and whose estimated similarity is
+   * at least the threshold
+   *
+   * @param threshold The minimum estimated Jaccard similarity
+   * @return The candidate pairs, each reported once with the lower id first
+   */
+  public List<Candidate> candidatePairs(final double threshold) {
+    final List<Candidate> result = new ArrayList<>();
+
+    int[] members = new int[16];
+
+    for (int band = 0; band < bands; band++) {
+      final Band bandBuckets = buckets[band];
+
+      for (int slot = 0; slot < bandBuckets.heads.length; slot++) {
+        int count = 0;
+
+        for (int id = bandBuckets.heads[slot]; id != NONE; id = bandBuckets.next[id]) {
+          if (count == members.length) {
+            members = Arrays.copyOf(members, count << 1);
+          }
+
+          members[count++] = id;
+        }
+
+        for (int left = 0; left < count; left++) {
+          for (int right = left + 1; right < count; right++) {
+            final int first = Math.min(members[left], members[right]);
+            final int second = Math.max(members[left], members[right]);
+            final int[] firstSignature = signatures.get(first);
+            final int[] secondSignature = signatures.get(second);
+
+            // Pairs sharing several bands are only verified in the first of them
+            if (firstSharedBand(firstSignature, secondSignature) != band) {
+              continue;
+            }
+
+            final double similarity = similarity(firstSignature, secondSignature);
+
+            if (similarity >= threshold) {
+              result.add(new Candidate(first, second, similarity));
+            }
+          }
+        }
+      }
+    }
+
+    return result;
+  }
+
+  private double similarity(final int[] first, final int[] second) {
+    return MinHash.estimateSimilarity(first, second, bands * rows);
+  }
+
+  /**
+   * The first band in which every row of the two signatures is equal
+   *
+   * @return The band, or NONE if they agree on no band
+   */
+  private int firstSharedBand(final int[] first, final int[] second) {
+    for (int band = 0; band < bands; band++) {
+      int row = band * rows;
+      final int end = row + rows;
+
+      while (row < end && first[row] == second[row]) {
+        row++;
+      }
+
+      if (row == end) {
+        return band;
+      }
+    }
+
+    return NONE;
+  }
+
+  private boolean isEmpty(final int[] signature) {
+    for (int index = 0; index < bands * rows; index++) {
+      if (signature[index] != Integer.MAX_VALUE) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private long bandHash(final int[] signature, final int band) {
+    long hash = band;
+
+    for (int row = band * rows; row < (band + 1) * rows; row++) {
+      hash = (hash ^ signature[row]) * 0x9E3779B97F4A7C15L;
+      hash ^= hash >>> 29;
+    }
+
+    return hash;
+  }
+
+  /**
+   * The buckets of one band: an open addressing table from band hash to the most recently added
+   * id, with the ids of each bucket chained through next
+   */
+  private static final class Band {
+
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    private long[] keys = new long[16];
+    private int[] heads = newHeads(16);
+    private int[] next = new int[16];
+    private int used;
+
+    private int head(final long key) {
+      final int mask = heads.length - 1;
+
+      for (int slot = spread(key) & mask; heads[slot] != NONE; slot = (slot + 1) & mask) {
+        if (keys[slot] == key) {
+          return heads[slot];
+        }
+      }
+
+      return NONE;
+    }
+
+    private void add(final long key, final int id) {
+      if (id >= next.length) {
+        next = Arrays.copyOf(next, Math.max(id + 1, next.length << 1));
+      }
+
+      final int mask = heads.length - 1;
+      int slot = spread(key) & mask;
+
+      while (heads[slot] != NONE && keys[slot] != key) {
+        slot = (slot + 1) & mask;
+      }
+
+      final boolean added = heads[slot] == NONE;
+
+      keys[slot] = key;
+      next[id] = heads[slot];
+      heads[slot] = id;
+
+      if (added && ++used * 4 >= heads.length * 3) {
+        grow();
+      }
+    }
+
+    private void grow() {
+      checkState(heads.length < MAXIMUM_CAPACITY, "Band table is full");
+
+      final long[] oldKeys = keys;
+      final int[] oldHeads = heads;
+
+      keys = new long[oldKeys.length << 1];
+      heads = newHeads(oldHeads.length << 1);
+
+      final int mask = heads.length - 1;
+
+      for (int index = 0; index < oldHeads.length; index++) {
+        if (oldHeads[index] != NONE) {
+          int slot = spread(oldKeys[index]) & mask;
+
+          while (heads[slot] != NONE) {
+            slot = (slot + 1) & mask;
+          }
+
+          keys[slot] = oldKeys[index];
+          heads[slot] = oldHeads[index];
+        }
+      }
+    }
+
+    private static int spread(final long key) {
+      final int hash = (int) (key ^ (key >>> 32)) * 0x9E3779B9;
+      return hash ^ (hash >>> 16);
+    }
+
+    private static int[] newHeads(final int capacity) {
+      final int[] result = new int[capacity];
+      Arrays.fill(result, NONE);
+      return result;
+    }
+  }
+
+  public static final class Candidate {
+
+    private final int first;
+    private final int second;
+    private final double similarity;
+
+    private Candidate(final int first, final int second, final double similarity) {
+      this.first = first;
+      this.second = second;
+      this.similarity = similarity;
+    }
+
+    public int getFirst() {
+      return first;
+    }
+
+    public int getSecond() {
+      return second;
+    }
+
+    public double getSimilarity() {
+      return similarity;
+    }
+
+    @Override
+    public String toString() {
+      return first + " ~ " + second + " (" + similarity + ")";
+    }
+  }
+}
@@ -0,0 +1,223 @@
+package org.granite.collections;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Pages through a source that is read once, such as the lines of a file or the rows of a query,
+ * pulling only as many elements as the pages requested so far need. Page numbers follow
+ * {@link ListTools#sublistPaging(List, int, int)}: pages start at 1, numbers below 1 return the
+ * first page and numbers past the end return the last one.
+ *
+ * Every page read is kept, so returning to an earlier page never touches the source again and
+ * memory grows with the furthest page requested rather than with the size of the source. When
+ * an executor is given, the page after the one just returned is read on it in the background.
+ * The source is never read by two threads at once, but the cursor itself is not thread safe.
+ */
+public class PagingCursor<T> {
+
+  private final Iterator<? extends T> source;
+  private final int pageSize;
+  private final Executor prefetchExecutor;
+
+  private final List<List<T>> pages = new ArrayList<>();
+  private boolean exhausted;
+  private CompletableFuture<List<T>> prefetched;
+
+  public PagingCursor(final Iterator<? extends T> source, final int pageSize) {
+    this(source, pageSize, null);
+  }
+
+  public PagingCursor(final Spliterator<? extends T> source, final int pageSize) {
+    this(source, pageSize, null);
+  }
+
+  public PagingCursor(
+      final Spliterator<? extends T> source,
+      final int pageSize,
+      final Executor prefetchExecutor) {
+    this(Spliterators.iterator(checkNotNull(source, "source")), pageSize, prefetchExecutor);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param source The elements to page through
+   * @param pageSize The number of elements per page
+   * @param prefetchExecutor Reads the next page ahead of time, or null to read on demand only
+   */
+  public PagingCursor(
+      final Iterator<? extends T> source,
+      final int pageSize,
+      final Executor prefetchExecutor) {
+    checkNotNull(source, "source");
+    checkArgument(pageSize > 0, "pageSize must be a positive number");
+
+    this.source = source;
+    this.pageSize = pageSize;
+    this.prefetchExecutor = prefetchExecutor;
+  }
+
+  public int getPageSize() {
+    return pageSize;
+  }
+
+  /**
+   * The number of pages read from the source so far
+   *
+   * @return The number of pages, including a prefetched page only once it has been used
+   */
+  public int getPagesRead() {
+    return pages.size();
+  }
+
+  /**
+   * Whether every element of the source has been read
+   *
+   * @return True once the last page has been read
+   */
+  public boolean isExhausted() {
+    return exhausted;
+  }
+
+  /**
+   * Returns a page, reading the source up to it if it has not been read yet
+   *
+   * @param pageNum The page number, starting at 1
+   * @return The page, which is empty only when the source is
+   */
+  public List<T> getPage(final int pageNum) {
+    final int index = Math.max(pageNum, 1) - 1;
+
+    readThrough(index);
+
+    if (pages.isEmpty()) {
+      return ImmutableList.of();
+    }
+
+    final int found = Math.min(index, pages.size() - 1);
+
+    if (found == pages.size() - 1) {
+      prefetch();
+    }
+
+    return pages.get(found);
+  }
+
+  /**
+   * Whether the source has enough elements to fill at least part of the page
+   *
+   * @param pageNum The page number, starting at 1
+   * @return True if the page exists
+   */
+  public boolean hasPage(final int pageNum) {
+    if (pageNum < 1) {
+      return false;
+    }
+
+    readThrough(pageNum - 1);
+
+    return pageNum <= pages.size();
+  }
+
+  /**
+   * Returns a range of elements in the manner of
+   * {@link ListTools#sublistLimitOffset(List, int, int)}, reading only the pages it spans
+   *
+   * @param limit The maximum number of elements
+   * @param offset The position of the first element
+   * @return The elements, or an empty list if the offset is past the end
+   */
+  public List<T> getLimitOffset(final int limit, final int offset) {
+    if (limit <= 0 || offset < 0) {
+      return ImmutableList.of();
+    }
+
+    final int firstPage = offset / pageSize;
+    // A limit of Integer.MAX_VALUE asks for everything from the offset
+    final int lastPage =
+        (int) Math.min((offset + (long) limit - 1) / pageSize, Integer.MAX_VALUE - 1);
+
+    readThrough(lastPage);
+
+    final List<T> result = new ArrayList<>(Math.min(limit, pageSize));
+
+    for (int index = firstPage; index <= lastPage && index < pages.size(); index++) {
+      final List<T> page = pages.get(index);
+      final long pageStart = (long) index * pageSize;
+      final int from = (int) Math.max(0L, offset - pageStart);
+      final int to = (int) Math.min(page.size(), offset + (long) limit - pageStart);
+
+      if (from < to) {
+        result.addAll(page.subList(from, to));
+      }
+    }
+
+    return result;
+  }
+
+  private void readThrough(final int index) {
+    while (pages.size() <= index && !exhausted) {
+      final List<T> page;
+
+      if (prefetched != null) {
+        page = takePrefetched();
+      } else {
+        page = readPage();
+      }
+
+      // Nothing else reads the source now, so it is safe to look ahead
+      exhausted = !source.hasNext();
+
+      if (!page.isEmpty()) {
+        pages.add(Collections.unmodifiableList(page));
+      }
+    }
+  }
+
+  private void prefetch() {
+    if (prefetchExecutor == null || prefetched != null || exhausted) {
+      return;
+    }
+
+    try {
+      prefetched = CompletableFuture.supplyAsync(this::readPage, prefetchExecutor);
+    } catch (RejectedExecutionException e) {
+      // The page is read on demand instead
+    }
+  }
+
+  private List<T> takePrefetched() {
+    try {
+      return prefetched.join();
+    } catch (CompletionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new IllegalStateException(e.getCause());
+    } finally {
+      prefetched = null;
+    }
+  }
+
+  private List<T> readPage() {
+    final List<T> page = new ArrayList<>(Math.min(pageSize, 1024));
+
+    while (page.size() < pageSize && source.hasNext()) {
+      page.add(source.next());
+    }
+
+    return page;
+  }
+}
@@ -0,0 +1,313 @@
+package org.granite.collections;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
+
+/**
+ * Draws random samples from lists, iterables and streams. Iterables and streams are consumed
+ * once, in order, holding only the sample in memory, so they can be far larger than the heap.
+ *
+ * The overloads without a random source use ThreadLocalRandom and are safe to call from any
+ * thread; pass a SplittableRandom for repeatable samples. For many weighted draws from a fixed
+ * set of weights, see {@link AliasTable}.
+ */
+public class SamplingTools {
+
+  /**
+   * Picks an element uniformly at random
+   *
+   * @param source The list to pick from
+   * @return The element, or null if the list is empty
+   */
+  public static <T> T pick(final List<T> source) {
+    checkNotNull(source, "source");
+
+    return source.isEmpty() ? null : source.get(ThreadLocalRandom.current().nextInt(source.size()));
+  }
+
+  public static <T> T pick(final List<T> source, final SplittableRandom random) {
+    checkNotNull(source, "source");
+    checkNotNull(random, "random");
+
+    return source.isEmpty() ? null : source.get(random.nextInt(source.size()));
+  }
+
+  /**
+   * Picks an element uniformly at random in one pass, without knowing the size in advance
+   *
+   * @param source The elements to pick from
+   * @return The element, or null if there are none
+   */
+  public static <T> T pick(final Iterable<? extends T> source) {
+    return pick(source, threadRandom());
+  }
+
+  public static <T> T pick(final Iterable<? extends T> source, final SplittableRandom random) {
+    checkNotNull(source, "source");
+
+    if (source instanceof List && source instanceof RandomAccess) {
+      checkNotNull(random, "random");
+
+      final List<? extends T> list = (List<? extends T>) source;
+
+      return list.isEmpty() ? null : list.get(random.nextInt(list.size()));
+    }
+
+    final List<T> sample = sample(source.iterator(), 1, random);
+
+    return sample.isEmpty() ? null : sample.get(0);
+  }
+
+  /**
+   * Draws a uniform random sample without replacement with reservoir sampling
+   *
+   * @param source The elements to sample
+   * @param k The sample size
+   * @return Up to k elements, in no particular order
+   */
+  public static <T> List<T> sample(final Iterable<? extends T> source, final int k) {
+    return sample(source, k, threadRandom());
+  }
+
+  public static <T> List<T> sample(
+      final Iterable<? extends T> source,
+      final int k,
+      final SplittableRandom random) {
+    checkNotNull(source, "source");
+    return sample(source.iterator(), k, random);
+  }
+
+  public static <T> List<T> sample(final Stream<? extends T> source, final int k) {
+    return sample(source, k, threadRandom());
+  }
+
+  public static <T> List<T> sample(
+      final Stream<? extends T> source,
+      final int k,
+      final SplittableRandom random) {
+    checkNotNull(source, "source");
+    return sample(source.iterator(), k, random);
+  }
+
+  /**
+   * Draws a weighted random sample without replacement with the A-Res algorithm of Efraimidis
+   * and Spirakis. Each element is kept with the key u^(1 / weight) for a uniform u, and the k
+   * largest keys win.
+   *
+   * @param source The elements to sample
+   * @param weight The weight of each element; elements weighing 0 are never chosen
+   * @param k The sample size
+   * @return Up to k elements, in the order successive weighted draws would have chosen them
+   */
+  public static <T> List<T> weightedSample(
+      final Iterable<? extends T> source,
+      final ToDoubleFunction<? super T> weight,
+      final int k) {
+    return weightedSample(source, weight, k, threadRandom());
+  }
+
+  public static <T> List<T> weightedSample(
+      final Iterable<? extends T> source,
+      final ToDoubleFunction<? super T> weight,
+      final int k,
+      final SplittableRandom random) {
+    checkNotNull(source, "source");
+    return weightedSample(source.iterator(), weight, k, random);
+  }
+
+  public static <T> List<T> weightedSample(
+      final Stream<? extends T> source,
+      final ToDoubleFunction<? super T> weight,
+      final int k) {
+    return weightedSample(source, weight, k, threadRandom());
+  }
+
+  public static <T> List<T> weightedSample(
+      final Stream<? extends T> source,
+      final ToDoubleFunction<? super T> weight,
+      final int k,
+      final SplittableRandom random) {
+    checkNotNull(source, "source");
+    return weightedSample(source.iterator(), weight, k, random);
+  }
+
+  /**
+   * Fills a reservoir with the first k elements, then replaces random members after skips drawn
+   * from a geometric distribution (Li's Algorithm L), so the number of random draws grows with
+   * log(n / k) rather than n
+   */
+  private static <T> List<T> sample(
+      final Iterator<? extends T> iterator,
+      final int k,
+      final SplittableRandom random) {
+    checkArgument(k > 0, "k must be a positive number");
+    checkNotNull(random, "random");
+
+    final List<T> reservoir = new ArrayList<>(Math.min(k, 1024));
+
+    while (reservoir.size() < k && iterator.hasNext()) {
+      reservoir.add(iterator.next());
+    }
+
+    double w = Math.exp(Math.log(uniform(random)) / k);
+
+    while (iterator.hasNext()) {
+      final long skip = (long) Math.floor(Math.log(uniform(random)) / Math.log1p(-w));
+
+      for (long skipped = 0; skipped < skip; skipped++) {
+        if (!iterator.hasNext()) {
+          return reservoir;
+        }
+
+        iterator.next();
+      }
+
+      if (!iterator.hasNext()) {
+        break;
+      }
+
+      reservoir.set(random.nextInt(k), iterator.next());
+      w *= Math.exp(Math.log(uniform(random)) / k);
+    }
+
+    return reservoir;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> List<T> weightedSample(
+      final Iterator<? extends T> iterator,
+      final ToDoubleFunction<? super T> weight,
+      final int k,
+      final SplittableRandom random) {
+    checkNotNull(weight, "weight");
+    checkArgument(k > 0, "k must be a positive number");
+    checkNotNull(random, "random");
+
+    // A min-heap on the keys, compared as log(u) / weight to avoid underflow
+    final int capacity = Math.min(k, 1024);
+    Object[] items = new Object[capacity];
+    double[] keys = new double[capacity];
+    int size = 0;
+
+    while (iterator.hasNext()) {
+      final T item = iterator.next();
+      final double itemWeight = weight.applyAsDouble(item);
+
+      checkArgument(itemWeight >= 0.0 && itemWeight < Double.POSITIVE_INFINITY,
+          "Invalid weight %s for %s", itemWeight, item);
+
+      if (itemWeight == 0.0) {
+        continue;
+      }
+
+      final double key = Math.log(uniform(random)) / itemWeight;
+
+      if (size < k) {
+        if (size == items.length) {
+          final int grown = (int) Math.min(k, items.length * 2L);
+
+          items = Arrays.copyOf(items, grown);
+          keys = Arrays.copyOf(keys, grown);
+        }
+
+        siftUp(items, keys, size++, item, key);
+      } else if (key > keys[0]) {
+        siftDown(items, keys, size, 0, item, key);
+      }
+    }
+
+    // Popping the minimum fills the result from the back, largest key first
+    final Object[] result = new Object[size];
+
+    for (int remaining = size; remaining > 0; remaining--) {
+      result[remaining - 1] = items[0];
+
+      if (remaining > 1) {
+        siftDown(items, keys, remaining - 1, 0, items[remaining - 1], keys[remaining - 1]);
+      }
+    }
+
+    final List<T> sample = new ArrayList<>(size);
+
+    for (Object item : result) {
+      sample.add((T) item);
+    }
+
+    return sample;
+  }
+
+  private static void siftUp(
+      final Object[] items,
+      final double[] keys,
+      final int start,
+      final Object item,
+      final double key) {
+    int index = start;
+
+    while (index > 0) {
+      final int parent = (index - 1) >>> 1;
+
+      if (keys[parent] <= key) {
+        break;
+      }
+
+      items[index] = items[parent];
+      keys[index] = keys[parent];
+      index = parent;
+    }
+
+    items[index] = item;
+    keys[index] = key;
+  }
+
+  private static void siftDown(
+      final Object[] items,
+      final double[] keys,
+      final int size,
+      final int start,
+      final Object item,
+      final double key) {
+    final int half = size >>> 1;
+    int index = start;
+
+    while (index < half) {
+      int child = (index << 1) + 1;
+
+      if (child + 1 < size && keys[child + 1] < keys[child]) {
+        child++;
+      }
+
+      if (key <= keys[child]) {
+        break;
+      }
+
+      items[index] = items[child];
+      keys[index] = keys[child];
+      index = child;
+    }
+
+    items[index] = item;
+    keys[index] = key;
+  }
+
+  /**
+   * A uniform number in (0, 1], which is safe to take the logarithm of
+   */
+  private static double uniform(final SplittableRandom random) {
+    return 1.0 - random.nextDouble();
+  }
+
+  private static SplittableRandom threadRandom() {
+    return new SplittableRandom(ThreadLocalRandom.current().nextLong());
+  }
+}
@@ -0,0 +1,403 @@
+package org.granite.collections;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the most frequent items of an unbounded stream with the Space-Saving algorithm, in
+ * memory fixed by the number of tracked items.
+ *
+ * When every slot is taken, a new item replaces the least counted one and inherits its count,
+ * which is recorded as the new item's error. Every item whose true frequency exceeds
+ * getTotalCount() / capacity is guaranteed to be tracked, and a tracked count overestimates the
+ * true count by at most its error. Size the counter with {@link #forErrorBound(double)} to
+ * bound that error as a fraction of the total count.
+ *
+ * Counters can be merged across threads and nodes, including after a round trip through
+ * {@link #toByteArray()}. Instances are not thread safe.
+ */
+public class SpaceSavingCounter {
+
+  private static final int FORMAT = 1;
+  private static final int HEADER_BYTES = 20;
+  private static final int ITEM_HEADER_BYTES = 20;
+  private static final int INITIAL_HEAP_SIZE = 16;
+
+  private static final Comparator<HeavyHitter> BY_COUNT =
+      Comparator.comparingLong(HeavyHitter::getCount).reversed()
+          .thenComparing(HeavyHitter::getItem);
+
+  private final int capacity;
+  private Node[] heap;
+  private final Map<String, Node> nodes;
+
+  private int size;
+  private long totalCount;
+
+  /**
+   * Constructor
+   *
+   * @param capacity The number of items to track
+   */
+  public SpaceSavingCounter(final int capacity) {
+    checkArgument(capacity > 0, "capacity must be a positive number");
+
+    this.capacity = capacity;
+    // Grown on demand, so a generous capacity costs nothing until it is used
+    this.heap = new Node[Math.min(capacity, INITIAL_HEAP_SIZE)];
+    this.nodes = new HashMap<>();
+  }
+
+  /**
+   * Sizes a counter so that no count overestimates by more than epsilon * getTotalCount()
+   *
+   * @param epsilon The error, as a fraction of the total count
+   * @return The empty counter
+   */
+  public static SpaceSavingCounter forErrorBound(final double epsilon) {
+    checkArgument(epsilon > 0.0 && epsilon < 1.0, "epsilon must be between 0 and 1");
+    return new SpaceSavingCounter((int) Math.ceil(1.0 / epsilon));
+  }
+
+  public static SpaceSavingCounter fromByteArray(final byte[] bytes) {
+    checkNotNull(bytes, "bytes");
+
+    try {
+      final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+
+      checkArgument(buffer.getInt() == FORMAT, "Unknown counter format");
+
+      final int capacity = buffer.getInt();
+      final long totalCount = buffer.getLong();
+      final int size = buffer.getInt();
+
+      // Validate the declared sizes before allocating anything from them
+      checkArgument(size >= 0 && size <= capacity, "Invalid number of items");
+      checkArgument(size <= (bytes.length - HEADER_BYTES) / ITEM_HEADER_BYTES,
+          "Serialized counter has %s bytes, too few for %s items", bytes.length, size);
+
+      final SpaceSavingCounter result = new SpaceSavingCounter(capacity);
+
+      for (int index = 0; index < size; index++) {
+        final long count = buffer.getLong();
+        final long error = buffer.getLong();
+        final int length = buffer.getInt();
+
+        checkArgument(length >= 0 && length <= buffer.remaining(), "Invalid item length");
+
+        final byte[] item = new byte[length];
+
+        buffer.get(item);
+        result.insert(new String(item, StandardCharsets.UTF_8), count, error);
+      }
+
+      checkArgument(!buffer.hasRemaining(), "Unexpected trailing bytes");
+
+      result.totalCount = totalCount;
+
+      return result;
+    } catch (BufferUnderflowException e) {
+      throw new IllegalArgumentException("Truncated counter", e);
+    }
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public long getTotalCount() {
+    return totalCount;
+  }
+
+  /**
+   * The most any tracked count can exceed the true count by, and the most an untracked item
+   * can have been seen
+   *
+   * @return The smallest tracked count once every slot is taken, otherwise 0
+   */
+  public long getMaxError() {
+    return size < capacity ? 0L : heap[0].count;
+  }
+
+  public void add(final String item) {
+    add(item, 1L);
+  }
+
+  public void add(final String item, final long count) {
+    checkNotNull(item, "item");
+    checkArgument(count >= 0, "count cannot be negative");
+
+    if (count == 0) {
+      return;
+    }
+
+    totalCount += count;
+
+    final Node node = nodes.get(item);
+
+    if (node != null) {
+      node.count += count;
+      siftDown(node.position);
+    } else if (size < capacity) {
+      insert(item, count, 0L);
+    } else {
+      // Replace the least counted item, which the new one inherits its count from
+      final Node lowest = heap[0];
+
+      nodes.remove(lowest.item);
+
+      lowest.item = item;
+      lowest.error = lowest.count;
+      lowest.count += count;
+
+      nodes.put(item, lowest);
+      siftDown(0);
+    }
+  }
+
+  /**
+   * The tracked count of the item
+   *
+   * @param item The item
+   * @return The count, which overestimates by at most the item's error, or 0 if untracked
+   */
+  public long getCount(final String item) {
+    final Node node = nodes.get(item);
+    return node == null ? 0L : node.count;
+  }
+
+  /**
+   * The most frequent tracked items
+   *
+   * @param n The maximum number of items to return
+   * @return The items, most frequent first
+   */
+  public List<HeavyHitter> topN(final int n) {
+    checkArgument(n > 0, "n must be a positive number");
+
+    final List<HeavyHitter> result = new ArrayList<>(size);
+
+    for (int index = 0; index < size; index++) {
+      result.add(new HeavyHitter(heap[index].item, heap[index].count, heap[index].error));
+    }
+
+    result.sort(BY_COUNT);
+
+    return result.size() <= n ? result : new ArrayList<>(result.subList(0, n));
+  }
+
+  /**
+   * Combines the counts of another counter. Items missing from one side are assumed to have
+   * that side's maximum error, which keeps every count an upper bound; the most counted items
+   * of the union are kept.
+   *
+   * @param other The counter to merge in
+   * @return This counter
+   */
+  public SpaceSavingCounter merge(final SpaceSavingCounter other) {
+    checkNotNull(other, "other");
+
+    final long thisMissing = getMaxError();
+    final long otherMissing = other.getMaxError();
+
+    final List<HeavyHitter> combined = new ArrayList<>(size + other.size);
+
+    for (int index = 0; index < size; index++) {
+      final Node node = heap[index];
+      final Node otherNode = other.nodes.get(node.item);
+
+      combined.add(otherNode == null
+          ? new HeavyHitter(node.item, node.count + otherMissing, node.error + otherMissing)
+          : new HeavyHitter(node.item, node.count + otherNode.count,
+              node.error + otherNode.error));
+    }
+
+    for (int index = 0; index < other.size; index++) {
+      final Node otherNode = other.heap[index];
+
+      if (!nodes.containsKey(otherNode.item)) {
+        combined.add(new HeavyHitter(otherNode.item, otherNode.count + thisMissing,
+            otherNode.error + thisMissing));
+      }
+    }
+
+    combined.sort(BY_COUNT);
+
+    final long mergedTotal = totalCount + other.totalCount;
+
+    clear();
+
+    for (int index = 0; index < Math.min(capacity, combined.size()); index++) {
+      final HeavyHitter hitter = combined.get(index);
+      insert(hitter.item, hitter.count, hitter.error);
+    }
+
+    totalCount = mergedTotal;
+
+    return this;
+  }
+
+  public void clear() {
+    for (int index = 0; index < size; index++) {
+      heap[index] = null;
+    }
+
+    nodes.clear();
+    size = 0;
+    totalCount = 0L;
+  }
+
+  public byte[] toByteArray() {
+    final byte[][] items = new byte[size][];
+    int length = HEADER_BYTES;
+
+    for (int index = 0; index < size; index++) {
+      items[index] = heap[index].item.getBytes(StandardCharsets.UTF_8);
+      length += ITEM_HEADER_BYTES + items[index].length;
+    }
+
+    final ByteBuffer buffer = ByteBuffer.allocate(length);
+
+    buffer.putInt(FORMAT).putInt(capacity).putLong(totalCount).putInt(size);
+
+    for (int index = 0; index < size; index++) {
+      buffer.putLong(heap[index].count).putLong(heap[index].error);
+      buffer.putInt(items[index].length).put(items[index]);
+    }
+
+    return buffer.array();
+  }
+
+  private void insert(final String item, final long count, final long error) {
+    final Node node = new Node(item, count, error);
+
+    nodes.put(item, node);
+
+    if (size == heap.length) {
+      heap = Arrays.copyOf(heap, (int) Math.min(capacity, heap.length * 2L));
+    }
+
+    heap[size] = node;
+    node.position = size++;
+
+    siftUp(node.position);
+  }
+
+  private void siftUp(final int start) {
+    final Node node = heap[start];
+    int index = start;
+
+    while (index > 0) {
+      final int parent = (index - 1) >>> 1;
+
+      if (heap[parent].count <= node.count) {
+        break;
+      }
+
+      place(heap[parent], index);
+      index = parent;
+    }
+
+    place(node, index);
+  }
+
+  private void siftDown(final int start) {
+    final Node node = heap[start];
+    final int half = size >>> 1;
+    int index = start;
+
+    while (index < half) {
+      int child = (index << 1) + 1;
+
+      if (child + 1 < size && heap[child + 1].count < heap[child].count) {
+        child++;
+      }
+
+      if (node.count <= heap[child].count) {
+        break;
+      }
+
+      place(heap[child], index);
+      index = child;
+    }
+
+    place(node, index);
+  }
+
+  private void place(final Node node, final int index) {
+    heap[index] = node;
+    node.position = index;
+  }
+
+  private static final class Node {
+
+    private String item;
+    private long count;
+    private long error;
+    private int position;
+
+    private Node(final String item, final long count, final long error) {
+      this.item = item;
+      this.count = count;
+      this.error = error;
+    }
+  }
+
+  public static final class HeavyHitter {
+
+    private final String item;
+    private final long count;
+    private final long error;
+
+    private HeavyHitter(final String item, final long count, final long error) {
+      this.item = item;
+      this.count = count;
+      this.error = error;
+    }
+
+    public String getItem() {
+      return item;
+    }
+
+    /**
+     * The estimated count, which is never below the true count
+     *
+     * @return The count
+     */
+    public long getCount() {
+      return count;
+    }
+
+    public long getError() {
+      return error;
+    }
+
+    /**
+     * The count the item is certain to have reached
+     *
+     * @return The count less the error
+     */
+    public long getGuaranteedCount() {
+      return count - error;
+    }
+
+    @Override
+    public String toString() {
+      return item + " = " + count + " (+/- " + error + ")";
+    }
+  }
+}
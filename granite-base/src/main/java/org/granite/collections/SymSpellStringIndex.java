@@ -0,0 +1,162 @@
+package org.granite.collections;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.granite.base.KeyValue;
+import org.granite.base.StringTools;
+
+/**
+ * A symmetric delete index over a string dictionary.
+ *
+ * Every entry is stored under all of the strings produced by deleting up to maxEditDistance
+ * characters from it. A query generates its own deletes and only the entries sharing one of
+ * them are compared, which makes lookups independent of dictionary size at the cost of a larger
+ * index. Queries are limited to the maxEditDistance chosen at build time.
+ */
+public class SymSpellStringIndex implements FuzzyStringIndex {
+
+  private final String[] terms;
+  private final Map<String, int[]> deletes;
+  private final int maxEditDistance;
+
+  public SymSpellStringIndex(final Collection<String> dictionary, final int maxEditDistance) {
+    checkNotNull(dictionary, "dictionary");
+    checkArgument(maxEditDistance >= 0, "maxEditDistance cannot be negative");
+
+    this.maxEditDistance = maxEditDistance;
+
+    final LinkedHashSet<String> unique = new LinkedHashSet<>(dictionary);
+    checkArgument(!unique.contains(null), "dictionary cannot contain null");
+
+    this.terms = unique.toArray(new String[0]);
+
+    // The first slot of each posting array holds the number of ids in use
+    final HashMap<String, int[]> postings = new HashMap<>();
+    final Set<String> termDeletes = new HashSet<>();
+
+    for (int id = 0; id < terms.length; id++) {
+      termDeletes.clear();
+      generateDeletes(terms[id], maxEditDistance, termDeletes);
+
+      for (String delete : termDeletes) {
+        int[] posting = postings.get(delete);
+
+        if (posting == null) {
+          posting = new int[2];
+        } else if (posting[0] + 1 == posting.length) {
+          posting = Arrays.copyOf(posting, posting.length << 1);
+        }
+
+        posting[++posting[0]] = id;
+        postings.put(delete, posting);
+      }
+    }
+
+    for (Map.Entry<String, int[]> entry : postings.entrySet()) {
+      final int[] posting = entry.getValue();
+      entry.setValue(Arrays.copyOfRange(posting, 1, posting[0] + 1));
+    }
+
+    this.deletes = postings;
+  }
+
+  public int getMaxEditDistance() {
+    return maxEditDistance;
+  }
+
+  @Override
+  public List<KeyValue<String, Integer>> findWithin(final String query, final int maxDistance) {
+    checkNotNull(query, "query");
+    checkArgument(maxDistance >= 0, "maxDistance cannot be negative");
+    checkArgument(maxDistance <= maxEditDistance,
+        "maxDistance cannot exceed the index maxEditDistance of %s", maxEditDistance);
+
+    if (terms.length == 0) {
+      return ImmutableList.of();
+    }
+
+    final Set<String> queryDeletes = new HashSet<>();
+    generateDeletes(query, maxDistance, queryDeletes);
+
+    final Set<Integer> checked = new HashSet<>();
+    final List<KeyValue<String, Integer>> result = new ArrayList<>();
+
+    for (String delete : queryDeletes) {
+      final int[] posting = deletes.get(delete);
+
+      if (posting == null) {
+        continue;
+      }
+
+      for (int id : posting) {
+        if (!checked.add(id)) {
+          continue;
+        }
+
+        final int distance = StringTools.levenshtein(query, terms[id], maxDistance);
+
+        if (distance >= 0) {
+          result.add(new KeyValue<>(terms[id], distance));
+        }
+      }
+    }
+
+    result.sort(MATCH_ORDER);
+
+    return result;
+  }
+
+  /**
+   * Finds the closest entries, searching no further than the index maxEditDistance
+   */
+  @Override
+  public List<KeyValue<String, Integer>> findNearest(final String query, final int count) {
+    checkArgument(count > 0, "count must be a positive number");
+
+    final List<KeyValue<String, Integer>> matches = findWithin(query, maxEditDistance);
+
+    return matches.size() <= count ? matches : new ArrayList<>(matches.subList(0, count));
+  }
+
+  @Override
+  public int size() {
+    return terms.length;
+  }
+
+  private static void generateDeletes(
+      final String value,
+      final int maxDeletes,
+      final Set<String> result) {
+
+    result.add(value);
+
+    List<String> level = ImmutableList.of(value);
+
+    for (int depth = 0; depth < maxDeletes && !level.isEmpty(); depth++) {
+      final List<String> next = new ArrayList<>();
+
+      for (String current : level) {
+        for (int index = 0; index < current.length(); index++) {
+          final String delete = current.substring(0, index) + current.substring(index + 1);
+
+          if (result.add(delete)) {
+            next.add(delete);
+          }
+        }
+      }
+
+      level = next;
+    }
+  }
+}
@@ -0,0 +1,249 @@
+package org.granite.collections;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collector;
+
+/**
+ * Keeps the k highest ranked of the elements offered to it.
+ *
+ * The retained elements sit in an array binary heap with the lowest ranked at the root, so an
+ * element that cannot enter the top k is rejected with a single comparison, and one that can
+ * replaces the root with O(log k) work and no allocation. Unlike {@link EvictingTreeSet}, which
+ * keeps the same kind of bounded ranking, elements that compare as equal are all kept; when
+ * the top k is full, a newcomer only displaces an element it ranks strictly above.
+ *
+ * Instances are not thread safe.
+ *
+ * @param <E> The element type
+ */
+public class TopK<E> {
+
+  private final int k;
+  private final Comparator<? super E> comparator;
+
+  private Object[] heap;
+  private int size;
+
+  /**
+   * Constructor
+   *
+   * @param k The number of elements to keep
+   * @param comparator Ranks the elements; the greatest elements are kept
+   */
+  public TopK(final int k, final Comparator<? super E> comparator) {
+    checkArgument(k > 0, "k must be a positive number");
+
+    this.k = k;
+    this.comparator = checkNotNull(comparator, "comparator");
+    this.heap = new Object[Math.min(k, 16)];
+  }
+
+  public static <E extends Comparable<? super E>> TopK<E> greatest(final int k) {
+    return new TopK<>(k, Comparator.naturalOrder());
+  }
+
+  public static <E extends Comparable<? super E>> TopK<E> least(final int k) {
+    return new TopK<>(k, Comparator.reverseOrder());
+  }
+
+  /**
+   * A collector of the k greatest elements by the comparator, greatest first
+   *
+   * @param k The number of elements to keep
+   * @param comparator Ranks the elements
+   * @param <E> The element type
+   * @return The collector
+   */
+  public static <E> Collector<E, ?, List<E>> collector(
+      final int k,
+      final Comparator<? super E> comparator) {
+    checkArgument(k > 0, "k must be a positive number");
+    checkNotNull(comparator, "comparator");
+
+    return Collector.of(
+        () -> new TopK<E>(k, comparator),
+        TopK::offer,
+        TopK::merge,
+        TopK::drainSorted);
+  }
+
+  public int getK() {
+    return k;
+  }
+
+  public Comparator<? super E> getComparator() {
+    return comparator;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Offers an element
+   *
+   * @param element The element
+   * @return True if the element is now among the top k
+   */
+  public boolean offer(final E element) {
+    checkNotNull(element, "element");
+
+    if (size < k) {
+      if (size == heap.length) {
+        heap = Arrays.copyOf(heap, Math.min(k, heap.length << 1));
+      }
+
+      siftUp(size++, element);
+      return true;
+    }
+
+    if (comparator.compare(element, elementAt(0)) <= 0) {
+      return false;
+    }
+
+    siftDown(0, element);
+    return true;
+  }
+
+  public boolean offerAll(final Iterable<? extends E> elements) {
+    checkNotNull(elements, "elements");
+
+    boolean changed = false;
+
+    for (E element : elements) {
+      changed |= offer(element);
+    }
+
+    return changed;
+  }
+
+  /**
+   * Offers every element retained by another collector, as when combining the partial results
+   * of parallel workers. The other collector is left unchanged.
+   *
+   * @param other The collector to merge in
+   * @return This collector
+   */
+  public TopK<E> merge(final TopK<? extends E> other) {
+    checkNotNull(other, "other");
+
+    for (int index = 0; index < other.size; index++) {
+      offer(other.elementAt(index));
+    }
+
+    return this;
+  }
+
+  /**
+   * The lowest ranked retained element, which a newcomer must beat once the top k is full
+   *
+   * @return The element, or null if empty
+   */
+  public E peekLowest() {
+    return size == 0 ? null : elementAt(0);
+  }
+
+  /**
+   * Copies the retained elements without changing the collector
+   *
+   * @return The elements, greatest first
+   */
+  public List<E> toSortedList() {
+    @SuppressWarnings("unchecked")
+    final E[] copy = (E[]) Arrays.copyOf(heap, size);
+
+    Arrays.sort(copy, comparator.reversed());
+
+    return new ArrayList<>(Arrays.asList(copy));
+  }
+
+  /**
+   * Removes all retained elements, sorting them in place on the heap array
+   *
+   * @return The elements, greatest first
+   */
+  public List<E> drainSorted() {
+    final int count = size;
+
+    // Repeatedly move the lowest ranked element behind the shrinking heap
+    while (size > 1) {
+      final E lowest = elementAt(0);
+      final E last = elementAt(--size);
+
+      siftDown(0, last);
+      heap[size] = lowest;
+    }
+
+    final List<E> result = new ArrayList<>(count);
+
+    for (int index = 0; index < count; index++) {
+      result.add(elementAt(index));
+    }
+
+    Arrays.fill(heap, 0, count, null);
+    size = 0;
+
+    return result;
+  }
+
+  public void clear() {
+    Arrays.fill(heap, 0, size, null);
+    size = 0;
+  }
+
+  @SuppressWarnings("unchecked")
+  private E elementAt(final int index) {
+    return (E) heap[index];
+  }
+
+  private void siftUp(final int start, final E element) {
+    int index = start;
+
+    while (index > 0) {
+      final int parent = (index - 1) >>> 1;
+      final E parentElement = elementAt(parent);
+
+      if (comparator.compare(element, parentElement) >= 0) {
+        break;
+      }
+
+      heap[index] = parentElement;
+      index = parent;
+    }
+
+    heap[index] = element;
+  }
+
+  private void siftDown(final int start, final E element) {
+    int index = start;
+    final int half = size >>> 1;
+
+    while (index < half) {
+      int child = (index << 1) + 1;
+      E childElement = elementAt(child);
+
+      if (child + 1 < size && comparator.compare(elementAt(child + 1), childElement) < 0) {
+        childElement = elementAt(++child);
+      }
+
+      if (comparator.compare(element, childElement) <= 0) {
+        break;
+      }
+
+      heap[index] = childElement;
+      index = child;
+    }
+
+    heap[index] = element;
+  }
+}
@@ -0,0 +1,230 @@
+package org.granite.collections;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import org.granite.base.UUIDTools;
+
+/**
+ * A map keyed by UUID that stores each key as two longs in an open-addressing table, next to
+ * a parallel array of values, instead of a hash node holding a UUID object. Lookups can be made
+ * with the two halves of the key or directly against the binary form written by
+ * {@link UUIDTools}.
+ *
+ * Null values are allowed. UUID keys are created on iteration. The map is not thread safe.
+ *
+ * @param <V> The value type
+ */
+public class UUIDHashMap<V> extends AbstractMap<UUID, V> {
+
+  private final UUIDHashTable table;
+
+  private Set<Entry<UUID, V>> entrySet;
+
+  public UUIDHashMap() {
+    this(16);
+  }
+
+  public UUIDHashMap(final int expectedSize) {
+    this.table = new UUIDHashTable(expectedSize, true);
+  }
+
+  public UUIDHashMap(final Map<? extends UUID, ? extends V> map) {
+    this(checkNotNull(map, "map").size());
+    putAll(map);
+  }
+
+  @Override
+  public int size() {
+    return table.size();
+  }
+
+  @Override
+  public boolean containsKey(final Object key) {
+    if (!(key instanceof UUID)) {
+      return false;
+    }
+
+    final UUID uuid = (UUID) key;
+    return containsKey(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+  }
+
+  public boolean containsKey(final long mostSignificantBits, final long leastSignificantBits) {
+    return table.find(mostSignificantBits, leastSignificantBits) >= 0;
+  }
+
+  @Override
+  public V get(final Object key) {
+    if (!(key instanceof UUID)) {
+      return null;
+    }
+
+    final UUID uuid = (UUID) key;
+    return get(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+  }
+
+  @SuppressWarnings("unchecked")
+  public V get(final long mostSignificantBits, final long leastSignificantBits) {
+    final int slot = table.find(mostSignificantBits, leastSignificantBits);
+    return slot < 0 ? null : (V) table.valueAt(slot);
+  }
+
+  /**
+   * Looks up the key stored in binary form at the offset
+   *
+   * @param source The buffer holding the binary UUID
+   * @param offset The position of the first byte of the UUID
+   * @return The value, or null if the key is absent
+   */
+  public V get(final byte[] source, final int offset) {
+    return get(
+        UUIDTools.mostSignificantBits(source, offset),
+        UUIDTools.leastSignificantBits(source, offset));
+  }
+
+  @Override
+  public V put(final UUID key, final V value) {
+    checkNotNull(key, "key");
+    return put(key.getMostSignificantBits(), key.getLeastSignificantBits(), value);
+  }
+
+  @SuppressWarnings("unchecked")
+  public V put(
+      final long mostSignificantBits,
+      final long leastSignificantBits,
+      final V value) {
+    final int slot = table.insert(mostSignificantBits, leastSignificantBits);
+
+    if (slot < 0) {
+      table.setValueAt(-slot - 1, value);
+      return null;
+    }
+
+    final V previous = (V) table.valueAt(slot);
+    table.setValueAt(slot, value);
+    return previous;
+  }
+
+  public V put(final byte[] source, final int offset, final V value) {
+    return put(
+        UUIDTools.mostSignificantBits(source, offset),
+        UUIDTools.leastSignificantBits(source, offset),
+        value);
+  }
+
+  @Override
+  public V remove(final Object key) {
+    if (!(key instanceof UUID)) {
+      return null;
+    }
+
+    final UUID uuid = (UUID) key;
+    return remove(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+  }
+
+  @SuppressWarnings("unchecked")
+  public V remove(final long mostSignificantBits, final long leastSignificantBits) {
+    final int slot = table.find(mostSignificantBits, leastSignificantBits);
+    return slot < 0 ? null : (V) table.removeAt(slot);
+  }
+
+  @Override
+  public void clear() {
+    table.clear();
+  }
+
+  @Override
+  public Set<Entry<UUID, V>> entrySet() {
+    if (entrySet == null) {
+      entrySet = new EntrySet();
+    }
+
+    return entrySet;
+  }
+
+  private final class EntrySet extends AbstractSet<Entry<UUID, V>> {
+
+    @Override
+    public int size() {
+      return table.size();
+    }
+
+    @Override
+    public boolean contains(final Object value) {
+      if (!(value instanceof Entry)) {
+        return false;
+      }
+
+      final Entry<?, ?> entry = (Entry<?, ?>) value;
+      final Object key = entry.getKey();
+
+      if (!(key instanceof UUID)) {
+        return false;
+      }
+
+      final UUID uuid = (UUID) key;
+      final int slot = table.find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+
+      return slot >= 0 && Objects.equals(table.valueAt(slot), entry.getValue());
+    }
+
+    @Override
+    public void clear() {
+      table.clear();
+    }
+
+    @Override
+    public Iterator<Entry<UUID, V>> iterator() {
+      final UUIDHashTable.Cursor cursor = table.cursor();
+
+      return new Iterator<Entry<UUID, V>>() {
+        @Override
+        public boolean hasNext() {
+          return cursor.hasNext();
+        }
+
+        @Override
+        public Entry<UUID, V> next() {
+          return new SlotEntry(cursor.next());
+        }
+
+        @Override
+        public void remove() {
+          cursor.remove();
+        }
+      };
+    }
+  }
+
+  /**
+   * An entry read from its slot when created; setValue writes through to the map while the
+   * map still holds the key
+   */
+  private final class SlotEntry extends SimpleEntry<UUID, V> {
+
+    private static final long serialVersionUID = 1L;
+
+    @SuppressWarnings("unchecked")
+    private SlotEntry(final int slot) {
+      super(new UUID(table.mostAt(slot), table.leastAt(slot)), (V) table.valueAt(slot));
+    }
+
+    @Override
+    public V setValue(final V value) {
+      final UUID key = getKey();
+      final int slot = table.find(key.getMostSignificantBits(), key.getLeastSignificantBits());
+
+      if (slot >= 0) {
+        table.setValueAt(slot, value);
+      }
+
+      return super.setValue(value);
+    }
+  }
+}
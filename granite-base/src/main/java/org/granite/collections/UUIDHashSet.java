@@ -0,0 +1,176 @@
+package org.granite.collections;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.UUID;
+import org.granite.base.UUIDTools;
+
+/**
+ * A set of UUIDs that stores each element as two longs in an open-addressing table instead of
+ * as a UUID object in a hash node. Each slot takes 16 bytes, which is around 21 bytes per
+ * element when the table is fully loaded and around twice that right after it grows, rather
+ * than the 80 or so of a HashSet. Lookups can be made with the two halves of the UUID or
+ * directly against the binary form written by {@link UUIDTools}, so no UUID has to be created.
+ *
+ * UUID instances are created on iteration. The set is not thread safe.
+ */
+public class UUIDHashSet extends AbstractSet<UUID> {
+
+  private final UUIDHashTable table;
+
+  public UUIDHashSet() {
+    this(16);
+  }
+
+  public UUIDHashSet(final int expectedSize) {
+    this.table = new UUIDHashTable(expectedSize, false);
+  }
+
+  public UUIDHashSet(final Collection<? extends UUID> uuids) {
+    this(checkNotNull(uuids, "uuids").size());
+    addAll(uuids);
+  }
+
+  @Override
+  public int size() {
+    return table.size();
+  }
+
+  @Override
+  public boolean add(final UUID uuid) {
+    checkNotNull(uuid, "uuid");
+    return add(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+  }
+
+  public boolean add(final long mostSignificantBits, final long leastSignificantBits) {
+    return table.insert(mostSignificantBits, leastSignificantBits) < 0;
+  }
+
+  /**
+   * Adds the UUID stored in binary form at the offset
+   *
+   * @param source The buffer holding the binary UUID
+   * @param offset The position of the first byte of the UUID
+   * @return True if the set did not already contain the UUID
+   */
+  public boolean add(final byte[] source, final int offset) {
+    return add(
+        UUIDTools.mostSignificantBits(source, offset),
+        UUIDTools.leastSignificantBits(source, offset));
+  }
+
+  /**
+   * Adds UUIDs packed back to back in binary form, as written by
+   * {@link UUIDTools#writeUuids(UUID[], int, int, byte[], int)}
+   *
+   * @param source The buffer holding the packed UUIDs
+   * @param offset The position of the first byte
+   * @param count The number of UUIDs to add
+   * @return True if the set changed
+   */
+  public boolean addAll(final byte[] source, final int offset, final int count) {
+    checkNotNull(source, "source");
+    checkPositionIndexes(offset, offset + count * UUIDTools.UUID_BYTES, source.length);
+
+    boolean changed = false;
+
+    for (int index = 0; index < count; index++) {
+      changed |= add(source, offset + index * UUIDTools.UUID_BYTES);
+    }
+
+    return changed;
+  }
+
+  @Override
+  public boolean contains(final Object value) {
+    if (!(value instanceof UUID)) {
+      return false;
+    }
+
+    final UUID uuid = (UUID) value;
+    return contains(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+  }
+
+  public boolean contains(final long mostSignificantBits, final long leastSignificantBits) {
+    return table.find(mostSignificantBits, leastSignificantBits) >= 0;
+  }
+
+  public boolean contains(final byte[] source, final int offset) {
+    return contains(
+        UUIDTools.mostSignificantBits(source, offset),
+        UUIDTools.leastSignificantBits(source, offset));
+  }
+
+  @Override
+  public boolean remove(final Object value) {
+    if (!(value instanceof UUID)) {
+      return false;
+    }
+
+    final UUID uuid = (UUID) value;
+    return remove(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+  }
+
+  public boolean remove(final long mostSignificantBits, final long leastSignificantBits) {
+    final int slot = table.find(mostSignificantBits, leastSignificantBits);
+
+    if (slot < 0) {
+      return false;
+    }
+
+    table.removeAt(slot);
+    return true;
+  }
+
+  @Override
+  public void clear() {
+    table.clear();
+  }
+
+  /**
+   * Packs the elements back to back in binary form, in iteration order
+   *
+   * @return The packed UUIDs
+   */
+  public byte[] toByteArray() {
+    final byte[] result = new byte[size() * UUIDTools.UUID_BYTES];
+    final UUIDHashTable.Cursor cursor = table.cursor();
+
+    int offset = 0;
+
+    while (cursor.hasNext()) {
+      final int slot = cursor.next();
+
+      offset = UUIDTools.writeUuid(table.mostAt(slot), table.leastAt(slot), result, offset);
+    }
+
+    return result;
+  }
+
+  @Override
+  public Iterator<UUID> iterator() {
+    final UUIDHashTable.Cursor cursor = table.cursor();
+
+    return new Iterator<UUID>() {
+      @Override
+      public boolean hasNext() {
+        return cursor.hasNext();
+      }
+
+      @Override
+      public UUID next() {
+        final int slot = cursor.next();
+        return new UUID(table.mostAt(slot), table.leastAt(slot));
+      }
+
+      @Override
+      public void remove() {
+        cursor.remove();
+      }
+    };
+  }
+}
@@ -0,0 +1,387 @@
+package org.granite.collections;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+
+/**
+ * The open-addressing table behind {@link UUIDHashSet} and {@link UUIDHashMap}.
+ *
+ * Keys are stored as parallel arrays of their most and least significant bits and probed
+ * linearly, so a lookup touches one or two adjacent slots of each array and allocates nothing.
+ * An all-zero slot marks an empty position; the nil UUID itself lives in an extra slot at the
+ * end of the arrays. Removal shifts later entries of the probe run back instead of leaving
+ * tombstones, so lookups never slow down after deletes.
+ */
+final class UUIDHashTable {
+
+  private static final float LOAD_FACTOR = 0.75f;
+  private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+  private final boolean withValues;
+
+  private long[] most;
+  private long[] least;
+  private Object[] values;
+
+  private int mask;
+  private int size;
+  private int resizeAt;
+  private boolean hasNil;
+  private int modCount;
+
+  UUIDHashTable(final int expectedSize, final boolean withValues) {
+    checkArgument(expectedSize >= 0, "expectedSize cannot be negative");
+
+    this.withValues = withValues;
+
+    allocate(capacityFor(expectedSize));
+  }
+
+  int size() {
+    return hasNil ? size + 1 : size;
+  }
+
+  /**
+   * Finds the slot holding the key
+   *
+   * @return The slot, or -1 if the key is absent
+   */
+  int find(final long mostBits, final long leastBits) {
+    if (mostBits == 0L && leastBits == 0L) {
+      return hasNil ? nilSlot() : -1;
+    }
+
+    int slot = hash(mostBits, leastBits) & mask;
+
+    while (true) {
+      final long slotMost = most[slot];
+      final long slotLeast = least[slot];
+
+      if (slotMost == mostBits && slotLeast == leastBits) {
+        return slot;
+      }
+
+      if (slotMost == 0L && slotLeast == 0L) {
+        return -1;
+      }
+
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  /**
+   * Finds or creates the slot for the key
+   *
+   * @return The slot of an existing key, or -(slot + 1) if the key was added
+   */
+  int insert(final long mostBits, final long leastBits) {
+    if (mostBits == 0L && leastBits == 0L) {
+      if (hasNil) {
+        return nilSlot();
+      }
+
+      hasNil = true;
+      modCount++;
+      return -(nilSlot() + 1);
+    }
+
+    int slot = hash(mostBits, leastBits) & mask;
+
+    while (true) {
+      final long slotMost = most[slot];
+      final long slotLeast = least[slot];
+
+      if (slotMost == mostBits && slotLeast == leastBits) {
+        return slot;
+      }
+
+      if (slotMost == 0L && slotLeast == 0L) {
+        break;
+      }
+
+      slot = (slot + 1) & mask;
+    }
+
+    // Below MAXIMUM_CAPACITY the table grows long before this; at it, the last free slot is
+    // kept empty so that probes always terminate
+    checkState(size < mask, "table is full");
+
+    most[slot] = mostBits;
+    least[slot] = leastBits;
+    modCount++;
+
+    if (++size >= resizeAt && mask + 1 < MAXIMUM_CAPACITY) {
+      rehash((mask + 1) << 1);
+      return -(find(mostBits, leastBits) + 1);
+    }
+
+    return -(slot + 1);
+  }
+
+  /**
+   * Removes the key in the slot
+   *
+   * @return The value the slot held
+   */
+  Object removeAt(final int slot) {
+    return removeAt(slot, null);
+  }
+
+  long mostAt(final int slot) {
+    return most[slot];
+  }
+
+  long leastAt(final int slot) {
+    return least[slot];
+  }
+
+  Object valueAt(final int slot) {
+    return values[slot];
+  }
+
+  void setValueAt(final int slot, final Object value) {
+    values[slot] = value;
+  }
+
+  void clear() {
+    if (size() == 0) {
+      return;
+    }
+
+    Arrays.fill(most, 0L);
+    Arrays.fill(least, 0L);
+
+    if (withValues) {
+      Arrays.fill(values, null);
+    }
+
+    size = 0;
+    hasNil = false;
+    modCount++;
+  }
+
+  Cursor cursor() {
+    return new Cursor();
+  }
+
+  private int nilSlot() {
+    return mask + 1;
+  }
+
+  private Object removeAt(final int slot, final Cursor cursor) {
+    final Object previous = withValues ? values[slot] : null;
+
+    modCount++;
+
+    if (slot == nilSlot()) {
+      hasNil = false;
+
+      if (withValues) {
+        values[slot] = null;
+      }
+
+      return previous;
+    }
+
+    size--;
+    shiftBack(slot, cursor);
+
+    return previous;
+  }
+
+  /**
+   * Closes the gap left at the slot by moving back later entries of the probe run whose home
+   * slot is not between the gap and their current position
+   */
+  private void shiftBack(final int gap, final Cursor cursor) {
+    int free = gap;
+    int slot = gap;
+
+    while (true) {
+      slot = (slot + 1) & mask;
+
+      final long slotMost = most[slot];
+      final long slotLeast = least[slot];
+
+      if (slotMost == 0L && slotLeast == 0L) {
+        break;
+      }
+
+      final int home = hash(slotMost, slotLeast) & mask;
+
+      final boolean stays = free <= slot
+          ? free < home && home <= slot
+          : free < home || home <= slot;
+
+      if (stays) {
+        continue;
+      }
+
+      if (cursor != null && slot < free) {
+        // The entry wraps around behind a cursor walking down from the top of the table
+        cursor.addWrapped(slotMost, slotLeast);
+      }
+
+      most[free] = slotMost;
+      least[free] = slotLeast;
+
+      if (withValues) {
+        values[free] = values[slot];
+      }
+
+      free = slot;
+    }
+
+    most[free] = 0L;
+    least[free] = 0L;
+
+    if (withValues) {
+      values[free] = null;
+    }
+  }
+
+  private void rehash(final int capacity) {
+    final long[] oldMost = most;
+    final long[] oldLeast = least;
+    final Object[] oldValues = values;
+    final int oldNil = nilSlot();
+
+    allocate(capacity);
+
+    for (int oldSlot = 0; oldSlot < oldNil; oldSlot++) {
+      final long slotMost = oldMost[oldSlot];
+      final long slotLeast = oldLeast[oldSlot];
+
+      if (slotMost == 0L && slotLeast == 0L) {
+        continue;
+      }
+
+      int slot = hash(slotMost, slotLeast) & mask;
+
+      while (most[slot] != 0L || least[slot] != 0L) {
+        slot = (slot + 1) & mask;
+      }
+
+      most[slot] = slotMost;
+      least[slot] = slotLeast;
+
+      if (withValues) {
+        values[slot] = oldValues[oldSlot];
+      }
+    }
+
+    if (withValues) {
+      values[nilSlot()] = oldValues[oldNil];
+    }
+  }
+
+  private void allocate(final int capacity) {
+    most = new long[capacity + 1];
+    least = new long[capacity + 1];
+    values = withValues ? new Object[capacity + 1] : null;
+    mask = capacity - 1;
+    resizeAt = Math.min(capacity - 1, (int) (capacity * LOAD_FACTOR));
+  }
+
+  private static int capacityFor(final int expectedSize) {
+    final long needed = (long) Math.ceil(Math.max(expectedSize, 2) / (double) LOAD_FACTOR) + 1;
+
+    return needed >= MAXIMUM_CAPACITY ? MAXIMUM_CAPACITY
+        : Integer.highestOneBit((int) needed - 1) << 1;
+  }
+
+  private static int hash(final long mostBits, final long leastBits) {
+    long hash = mostBits ^ (leastBits * 0x9E3779B97F4A7C15L);
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    return (int) hash;
+  }
+
+  /**
+   * Walks the slots from the top of the table down. Entries that a removal moves from the
+   * bottom of the table to above the cursor are remembered and returned at the end.
+   */
+  final class Cursor {
+
+    private int position = nilSlot();
+    private int last = -1;
+    private int remaining = size();
+    private boolean pendingNil = hasNil;
+
+    private long[] wrapped;
+    private int wrappedCount;
+    private int wrappedIndex;
+
+    private int expectedModCount = modCount;
+
+    boolean hasNext() {
+      return remaining > 0;
+    }
+
+    /**
+     * Advances to the next entry
+     *
+     * @return The slot of the entry
+     */
+    int next() {
+      if (expectedModCount != modCount) {
+        throw new ConcurrentModificationException();
+      }
+
+      if (remaining == 0) {
+        throw new NoSuchElementException();
+      }
+
+      remaining--;
+
+      if (pendingNil) {
+        pendingNil = false;
+        last = nilSlot();
+        return last;
+      }
+
+      while (--position >= 0) {
+        if (most[position] != 0L || least[position] != 0L) {
+          last = position;
+          return last;
+        }
+      }
+
+      last = find(wrapped[wrappedIndex << 1], wrapped[(wrappedIndex << 1) + 1]);
+      wrappedIndex++;
+
+      return last;
+    }
+
+    void remove() {
+      checkState(last != -1, "next has not been called or the entry was already removed");
+
+      if (expectedModCount != modCount) {
+        throw new ConcurrentModificationException();
+      }
+
+      // Once the cursor is past the bottom of the table, moved entries are already behind it
+      removeAt(last, position >= 0 ? this : null);
+
+      last = -1;
+      expectedModCount = modCount;
+    }
+
+    private void addWrapped(final long mostBits, final long leastBits) {
+      if (wrapped == null) {
+        wrapped = new long[8];
+      } else if (wrappedCount << 1 == wrapped.length) {
+        wrapped = Arrays.copyOf(wrapped, wrapped.length << 1);
+      }
+
+      wrapped[wrappedCount << 1] = mostBits;
+      wrapped[(wrappedCount << 1) + 1] = leastBits;
+      wrappedCount++;
+    }
+  }
+}
@@ -26,6 +26,7 @@ import java.util.Map;
 import java.util.function.Function;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
+import org.granite.base.KeyValueParser;
 import org.granite.base.StringTools;
 import org.granite.collections.MapTools;
 import org.granite.log.LogTools;
@@ -120,14 +121,8 @@ public final class ApplicationConfiguration implements Serializable {
       final CharMatcher entryDelimiter,
       final CharMatcher keyValueDelimiter,
       final Function<String, V> valueConverter) {
-    return StringTools
-        .convertStringsToMap(
-            getString(configKey, ""),
-            entryDelimiter,
-            keyValueDelimiter,
-            valueConverter,
-            true
-        );
+    return new KeyValueParser(entryDelimiter, keyValueDelimiter, true, false)
+        .parse(getString(configKey, ""), valueConverter);
   }
 
   public <V> List<V> getList(final String configKey,
@@ -17,7 +17,6 @@ package org.granite.configuration;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
-import com.google.common.base.CharMatcher;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Sets;
@@ -28,9 +27,8 @@ import java.io.Serializable;
 import java.nio.charset.Charset;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
-import java.util.stream.Collectors;
 import org.granite.base.ExceptionTools;
+import org.granite.base.KeyValueParser;
 import org.granite.base.StringTools;
 import org.granite.collections.MapTools;
 import org.granite.io.FileTools;
@@ -84,18 +82,9 @@ public final class ConfigTools implements Serializable {
     // Ultimately - command-line properties override everything
 
     final Map<String, Object> propertiesMatches = MapTools
-        .intersectKeys(
+        .intersectKeysCaseInsensitive(
             result,
-            System.getProperties(),
-            String::toLowerCase,
-            key -> {
-              if (key instanceof String) {
-                return ((String) key).toLowerCase();
-              } else {
-                // Do not support non-string matching
-                return UUID.randomUUID().toString();
-              }
-            }
+            System.getProperties()
         );
 
     for (Map.Entry<String, Object> matchEntry : propertiesMatches.entrySet()) {
@@ -119,13 +108,8 @@ public final class ConfigTools implements Serializable {
     try {
       LogTools.info("Reading config values from file {0}", configFile);
 
-      return StringTools.convertStringsToMap(
-          Files.readLines(new File(configFile), Charset.defaultCharset())
-              .stream()
-              .filter(line -> !line.trim().startsWith("#")) // remove comments
-              .collect(Collectors.toList()),
-          CharMatcher.is('='),
-          false);
+      return KeyValueParser.CONFIG_LINES.parse(
+          Files.asCharSource(new File(configFile), Charset.defaultCharset()).read());
 
     } catch (IOException e) {
       throw ExceptionTools.checkedToRuntime(e);
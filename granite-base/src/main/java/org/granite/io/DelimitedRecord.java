@@ -0,0 +1,239 @@
+/*
+ * Copyright (C) 2016 Charles Brophy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.granite.io;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.granite.base.StringPool;
+
+/**
+ * A single parsed record as handed out by {@link DelimitedRecordParser}.
+ *
+ * The record is reused by the parser: all field characters live in one shared buffer and the
+ * values returned by {@link #getField(int)} are views over that buffer. Views are only valid
+ * until the handler returns, so anything that must outlive the callback should be copied with
+ * {@link #getFieldString(int)} or {@link #toList()}.
+ */
+public final class DelimitedRecord {
+
+  private char[] data = new char[256];
+  private int length;
+
+  private int[] fieldEnds = new int[16];
+  private int fieldCount;
+
+  private FieldView[] views = new FieldView[0];
+
+  private long recordNumber;
+
+  DelimitedRecord() {
+  }
+
+  /**
+   * The 1-based position of this record among the records emitted by the parser. A
+   * {@link ParallelDelimitedFileParser} runs one parser per range of the file, so there the
+   * number is only the position within the range.
+   *
+   * @return The record number
+   */
+  public long getRecordNumber() {
+    return recordNumber;
+  }
+
+  public int getFieldCount() {
+    return fieldCount;
+  }
+
+  public int getFieldLength(final int index) {
+    checkElementIndex(index, fieldCount, "index");
+    return fieldEnds[index] - fieldStart(index);
+  }
+
+  /**
+   * A view of the field that does not copy any characters. The returned instance is reused for
+   * every record, so it must not be retained after the handler returns.
+   *
+   * @param index The 0-based field index
+   * @return A view of the field contents
+   */
+  public CharSequence getField(final int index) {
+    checkElementIndex(index, fieldCount, "index");
+    return views[index];
+  }
+
+  public String getFieldString(final int index) {
+    checkElementIndex(index, fieldCount, "index");
+    final int start = fieldStart(index);
+    return new String(data, start, fieldEnds[index] - start);
+  }
+
+  /**
+   * Returns the pooled instance for the field contents, creating a String only when the pool
+   * does not already hold an equal value
+   *
+   * @param index The 0-based field index
+   * @param pool The pool used to dedupe values
+   * @return The field value
+   */
+  public String getFieldString(final int index, final StringPool pool) {
+    checkElementIndex(index, fieldCount, "index");
+    checkNotNull(pool, "pool");
+
+    final int start = fieldStart(index);
+    return pool.intern(data, start, fieldEnds[index] - start);
+  }
+
+  public boolean fieldEquals(final int index, final CharSequence value) {
+    checkElementIndex(index, fieldCount, "index");
+    checkNotNull(value, "value");
+
+    final int start = fieldStart(index);
+
+    if (fieldEnds[index] - start != value.length()) {
+      return false;
+    }
+
+    for (int offset = 0; offset < value.length(); offset++) {
+      if (data[start + offset] != value.charAt(offset)) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Copies the characters of a field into the destination buffer
+   *
+   * @param index The 0-based field index
+   * @param destination The buffer to write to
+   * @param offset The position in the destination to start writing
+   * @return The number of characters written
+   */
+  public int copyField(final int index, final char[] destination, final int offset) {
+    checkElementIndex(index, fieldCount, "index");
+    checkNotNull(destination, "destination");
+
+    final int start = fieldStart(index);
+    final int fieldLength = fieldEnds[index] - start;
+
+    System.arraycopy(data, start, destination, offset, fieldLength);
+
+    return fieldLength;
+  }
+
+  public List<String> toList() {
+    final List<String> result = new ArrayList<>(fieldCount);
+
+    for (int index = 0; index < fieldCount; index++) {
+      result.add(getFieldString(index));
+    }
+
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return toList().toString();
+  }
+
+  char[] buffer() {
+    return data;
+  }
+
+  int fieldStart(final int index) {
+    return index == 0 ? 0 : fieldEnds[index - 1];
+  }
+
+  int length() {
+    return length;
+  }
+
+  void append(final char value) {
+    if (length == data.length) {
+      data = Arrays.copyOf(data, data.length << 1);
+    }
+
+    data[length++] = value;
+  }
+
+  void truncate(final int newLength) {
+    length = newLength;
+  }
+
+  void endField() {
+    if (fieldCount == fieldEnds.length) {
+      fieldEnds = Arrays.copyOf(fieldEnds, fieldEnds.length << 1);
+    }
+
+    if (fieldCount == views.length) {
+      final int oldLength = views.length;
+
+      views = Arrays.copyOf(views, Math.max(fieldEnds.length, oldLength + 1));
+
+      for (int index = oldLength; index < views.length; index++) {
+        views[index] = new FieldView(index);
+      }
+    }
+
+    fieldEnds[fieldCount++] = length;
+  }
+
+  void begin(final long recordNumber) {
+    this.recordNumber = recordNumber;
+  }
+
+  void reset() {
+    length = 0;
+    fieldCount = 0;
+  }
+
+  private final class FieldView implements CharSequence {
+
+    private final int index;
+
+    private FieldView(final int index) {
+      this.index = index;
+    }
+
+    @Override
+    public int length() {
+      return fieldEnds[index] - fieldStart(index);
+    }
+
+    @Override
+    public char charAt(final int offset) {
+      checkElementIndex(offset, length(), "offset");
+      return data[fieldStart(index) + offset];
+    }
+
+    @Override
+    public CharSequence subSequence(final int start, final int end) {
+      checkPositionIndexes(start, end, length());
+      return new String(data, fieldStart(index) + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+      return getFieldString(index);
+    }
+  }
+}
@@ -0,0 +1,298 @@
+/*
+ * Copyright (C) 2016 Charles Brophy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.granite.io;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.io.IOException;
+import java.io.Reader;
+import org.granite.base.ExceptionTools;
+
+/**
+ * A streaming RFC 4180 style parser for delimited text.
+ *
+ * Qualified fields may contain delimiters, line breaks and escaped (doubled) qualifiers. Records
+ * end on LF, CR or CRLF outside of a qualified field and blank lines are skipped. Characters that
+ * follow a closing qualifier are kept as-is rather than rejected.
+ *
+ * The parser reuses a single {@link DelimitedRecord} and read buffer, so steady-state parsing
+ * does not allocate per row. Instances are not thread safe.
+ */
+public final class DelimitedRecordParser {
+
+  private static final int READ_BUFFER_SIZE = 65536;
+
+  private static final int FIELD_START = 0;
+  private static final int UNQUOTED = 1;
+  private static final int QUOTED = 2;
+  private static final int QUOTE_SEEN = 3;
+
+  private final char delimiter;
+  private final char textQualifier;
+  private final boolean trimResults;
+
+  private final DelimitedRecord record = new DelimitedRecord();
+
+  private char[] readBuffer;
+
+  private RecordHandler handler;
+  private long recordCount;
+  private int state;
+  private int fieldStart;
+  private int quotedEnd;
+  private boolean fieldQuoted;
+  private boolean skipLineFeed;
+
+  /**
+   * Constructor
+   *
+   * @param delimiter The field delimiter
+   * @param textQualifier The character used to qualify (quote) fields
+   * @param trimResults Set to true to trim whitespace outside of qualified content
+   */
+  public DelimitedRecordParser(
+      final char delimiter,
+      final char textQualifier,
+      final boolean trimResults) {
+    checkArgument(delimiter != textQualifier, "delimiter and textQualifier must differ");
+    checkArgument(!isLineBreak(delimiter), "delimiter cannot be a line break");
+    checkArgument(!isLineBreak(textQualifier), "textQualifier cannot be a line break");
+
+    this.delimiter = delimiter;
+    this.textQualifier = textQualifier;
+    this.trimResults = trimResults;
+  }
+
+  public char getDelimiter() {
+    return delimiter;
+  }
+
+  public char getTextQualifier() {
+    return textQualifier;
+  }
+
+  public boolean isTrimResults() {
+    return trimResults;
+  }
+
+  /**
+   * Parses all records from the reader. The reader is not closed.
+   *
+   * @param reader The source of the text
+   * @param handler Receives each record as it is completed
+   * @return The number of records emitted
+   */
+  public long parse(final Reader reader, final RecordHandler handler) {
+    checkNotNull(reader, "reader");
+
+    begin(handler);
+
+    if (readBuffer == null) {
+      readBuffer = new char[READ_BUFFER_SIZE];
+    }
+
+    try {
+      int read;
+
+      while ((read = reader.read(readBuffer, 0, readBuffer.length)) >= 0) {
+        for (int index = 0; index < read; index++) {
+          accept(readBuffer[index]);
+        }
+      }
+    } catch (IOException e) {
+      throw ExceptionTools.checkedToRuntime(e);
+    }
+
+    return finish();
+  }
+
+  public long parse(
+      final char[] buffer,
+      final int offset,
+      final int length,
+      final RecordHandler handler) {
+    checkNotNull(buffer, "buffer");
+    checkPositionIndexes(offset, offset + length, buffer.length);
+
+    begin(handler);
+
+    for (int index = offset; index < offset + length; index++) {
+      accept(buffer[index]);
+    }
+
+    return finish();
+  }
+
+  public long parse(final CharSequence text, final RecordHandler handler) {
+    checkNotNull(text, "text");
+
+    begin(handler);
+
+    for (int index = 0; index < text.length(); index++) {
+      accept(text.charAt(index));
+    }
+
+    return finish();
+  }
+
+  private void begin(final RecordHandler handler) {
+    this.handler = checkNotNull(handler, "handler");
+
+    record.reset();
+    recordCount = 0;
+    state = FIELD_START;
+    fieldStart = 0;
+    quotedEnd = 0;
+    fieldQuoted = false;
+    skipLineFeed = false;
+  }
+
+  private long finish() {
+    checkState(state != QUOTED, "Unmatched qualifier in record %s", recordCount + 1);
+
+    if (state == QUOTE_SEEN) {
+      quotedEnd = record.length();
+    }
+
+    if (record.getFieldCount() > 0 || record.length() > 0 || fieldQuoted) {
+      endField();
+      emit();
+    }
+
+    handler = null;
+
+    return recordCount;
+  }
+
+  private void accept(final char current) {
+    if (skipLineFeed) {
+      skipLineFeed = false;
+
+      if (current == '\n') {
+        return;
+      }
+    }
+
+    switch (state) {
+      case FIELD_START:
+        if (current == delimiter) {
+          endField();
+        } else if (isLineBreak(current)) {
+          endRecord(current);
+        } else if (current == textQualifier) {
+          fieldQuoted = true;
+          state = QUOTED;
+        } else if (!trimResults || current > ' ') {
+          record.append(current);
+          state = UNQUOTED;
+        }
+        break;
+
+      case QUOTED:
+        if (current == textQualifier) {
+          state = QUOTE_SEEN;
+        } else {
+          record.append(current);
+        }
+        break;
+
+      case QUOTE_SEEN:
+        if (current == textQualifier) {
+          // An escaped qualifier inside of a qualified field
+          record.append(current);
+          state = QUOTED;
+          break;
+        }
+
+        quotedEnd = record.length();
+        state = UNQUOTED;
+        acceptUnquoted(current);
+        break;
+
+      default:
+        acceptUnquoted(current);
+    }
+  }
+
+  private void acceptUnquoted(final char current) {
+    if (current == delimiter) {
+      endField();
+    } else if (isLineBreak(current)) {
+      endRecord(current);
+    } else {
+      record.append(current);
+    }
+  }
+
+  private void endField() {
+    if (trimResults) {
+      final char[] data = record.buffer();
+      final int floor = fieldQuoted ? Math.max(fieldStart, quotedEnd) : fieldStart;
+
+      int end = record.length();
+
+      while (end > floor && data[end - 1] <= ' ') {
+        end--;
+      }
+
+      record.truncate(end);
+    }
+
+    record.endField();
+
+    fieldStart = record.length();
+    quotedEnd = 0;
+    fieldQuoted = false;
+    state = FIELD_START;
+  }
+
+  private void endRecord(final char lineBreak) {
+    skipLineFeed = lineBreak == '\r';
+
+    if (record.getFieldCount() == 0 && record.length() == 0 && !fieldQuoted) {
+      // blank line
+      state = FIELD_START;
+      return;
+    }
+
+    endField();
+    emit();
+  }
+
+  private void emit() {
+    record.begin(++recordCount);
+
+    try {
+      handler.handle(record);
+    } finally {
+      record.reset();
+      fieldStart = 0;
+    }
+  }
+
+  private static boolean isLineBreak(final char value) {
+    return value == '\n' || value == '\r';
+  }
+
+  @FunctionalInterface
+  public interface RecordHandler {
+
+    void handle(DelimitedRecord record);
+  }
+}
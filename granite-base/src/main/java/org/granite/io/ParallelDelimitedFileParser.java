@@ -0,0 +1,432 @@
+/*
+ * Copyright (C) 2016 Charles Brophy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.granite.io;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import org.granite.base.ExceptionTools;
+
+/**
+ * Parses a large, uncompressed delimited file by splitting it into byte ranges that start and end
+ * on record boundaries and tokenizing each range on a fork-join pool.
+ *
+ * Ranges are found without a sequential pass over the file: each raw range first counts its
+ * qualifiers in parallel, which gives the quote state at every raw boundary, and each boundary is
+ * then moved forward to the next line feed outside of a qualified field. This requires the input
+ * to follow RFC 4180 quoting (qualifiers only open a field) and to use LF or CRLF line breaks; a
+ * file with neither is parsed as a single range.
+ *
+ * The charset must encode line breaks and the qualifier as the equivalent single byte, which
+ * holds for UTF-8 and the ISO-8859 and ASCII family of charsets.
+ */
+public final class ParallelDelimitedFileParser {
+
+  static final long DEFAULT_MIN_CHUNK_SIZE = 1 << 20;
+
+  private static final int READ_BUFFER_SIZE = 65536;
+  private static final int CHUNKS_PER_THREAD = 4;
+
+  private final char delimiter;
+  private final char textQualifier;
+  private final boolean trimResults;
+  private final Charset charset;
+  private final ForkJoinPool pool;
+  private final long minChunkSize;
+
+  public ParallelDelimitedFileParser(
+      final char delimiter,
+      final char textQualifier,
+      final boolean trimResults) {
+    this(delimiter,
+        textQualifier,
+        trimResults,
+        Charset.defaultCharset(),
+        ForkJoinPool.commonPool(),
+        DEFAULT_MIN_CHUNK_SIZE);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param delimiter The field delimiter
+   * @param textQualifier The character used to qualify (quote) fields
+   * @param trimResults Set to true to trim whitespace outside of qualified content
+   * @param charset The charset of the file
+   * @param pool The pool that parses the chunks
+   * @param minChunkSize The smallest byte range worth handing to a separate task
+   */
+  public ParallelDelimitedFileParser(
+      final char delimiter,
+      final char textQualifier,
+      final boolean trimResults,
+      final Charset charset,
+      final ForkJoinPool pool,
+      final long minChunkSize) {
+    checkNotNull(charset, "charset");
+    checkArgument(minChunkSize > 0, "minChunkSize must be a positive number");
+    checkArgument(isSingleByte(textQualifier, charset) && isSingleByte('\n', charset),
+        "%s does not encode the qualifier and line feed as single bytes", charset);
+
+    // Validates the remaining arguments
+    new DelimitedRecordParser(delimiter, textQualifier, trimResults);
+
+    this.delimiter = delimiter;
+    this.textQualifier = textQualifier;
+    this.trimResults = trimResults;
+    this.charset = charset;
+    this.pool = checkNotNull(pool, "pool");
+    this.minChunkSize = minChunkSize;
+  }
+
+  /**
+   * Parses the file, mapping every record on the worker threads and passing non-null results to
+   * the consumer.
+   *
+   * Each range is tokenized by its own DelimitedRecordParser, so
+   * {@link DelimitedRecord#getRecordNumber()} counts from 1 within each range and the same
+   * number repeats across ranges; it does not identify a record within the file.
+   *
+   * When ordered is true, the results of each range are buffered and the consumer is called on
+   * the calling thread in file order. Ranges are then about minChunkSize bytes each, and only
+   * a few per pool thread are parsed ahead of the consumer, so memory stays bounded however
+   * large the file is. Otherwise the consumer is called directly from the worker
+   * threads as records are mapped and must be thread safe.
+   *
+   * @param filePath The file to parse
+   * @param mapper Converts the reused record into a result; it must not retain the record
+   * @param consumer Receives the results
+   * @param ordered Whether results are delivered in file order
+   * @return The number of records parsed
+   */
+  public <T> long parse(
+      final String filePath,
+      final Function<DelimitedRecord, T> mapper,
+      final Consumer<? super T> consumer,
+      final boolean ordered) {
+    checkNotNull(filePath, "filePath");
+    checkNotNull(mapper, "mapper");
+    checkNotNull(consumer, "consumer");
+
+    try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+
+      // Ordered results are buffered, so ranges stay small and only a window of them is parsed
+      // ahead of the consumer
+      final int window = pool.getParallelism() * CHUNKS_PER_THREAD;
+      final long[] boundaries =
+          findRecordBoundaries(channel, ordered ? Integer.MAX_VALUE - 1 : window);
+
+      final LongAdder recordCount = new LongAdder();
+
+      final List<ChunkTask<T>> tasks = new ArrayList<>();
+
+      for (int index = 1; index < boundaries.length; index++) {
+        if (boundaries[index] > boundaries[index - 1]) {
+          tasks.add(new ChunkTask<>(
+              channel,
+              boundaries[index - 1],
+              boundaries[index],
+              mapper,
+              ordered ? null : consumer,
+              recordCount));
+        }
+      }
+
+      int submitted = 0;
+
+      while (submitted < tasks.size() && (!ordered || submitted < window)) {
+        pool.execute(tasks.get(submitted++));
+      }
+
+      try {
+        for (int index = 0; index < tasks.size(); index++) {
+          final List<T> results = tasks.get(index).join();
+
+          if (ordered) {
+            results.forEach(consumer);
+
+            // Release the drained range before starting the next one
+            tasks.set(index, null);
+
+            if (submitted < tasks.size()) {
+              pool.execute(tasks.get(submitted++));
+            }
+          }
+        }
+      } catch (RuntimeException e) {
+        tasks.stream()
+            .filter(Objects::nonNull)
+            .forEach(task -> task.cancel(false));
+        throw e;
+      }
+
+      return recordCount.sum();
+
+    } catch (IOException e) {
+      throw ExceptionTools.checkedToRuntime(e);
+    }
+  }
+
+  long[] findRecordBoundaries(final FileChannel channel) throws IOException {
+    return findRecordBoundaries(channel, pool.getParallelism() * CHUNKS_PER_THREAD);
+  }
+
+  /**
+   * Splits the file into at most maxChunks ranges of at least minChunkSize bytes, each starting
+   * and ending on a record boundary
+   */
+  long[] findRecordBoundaries(final FileChannel channel, final int maxChunks)
+      throws IOException {
+    final long size = channel.size();
+
+    final int chunkCount = (int) Math.max(1L, Math.min(maxChunks, size / minChunkSize));
+
+    final long[] boundaries = new long[chunkCount + 1];
+
+    for (int index = 0; index <= chunkCount; index++) {
+      boundaries[index] = size * index / chunkCount;
+    }
+
+    if (chunkCount == 1) {
+      return boundaries;
+    }
+
+    // Pass 1: qualifier parity of each raw range gives the quote state at each boundary
+    final long[] parities = new long[chunkCount - 1];
+
+    runWindowed(chunkCount - 1, index -> parities[index] =
+        scan(channel, boundaries[index], boundaries[index + 1], false, false));
+
+    final boolean[] quoted = new boolean[chunkCount];
+
+    for (int index = 1; index < chunkCount; index++) {
+      quoted[index] = quoted[index - 1] ^ (parities[index - 1] & 1) == 1;
+    }
+
+    // Pass 2: move each boundary forward past the next unqualified line feed
+    final long[] aligned = new long[chunkCount - 1];
+
+    runWindowed(chunkCount - 1, index -> aligned[index] =
+        scan(channel, boundaries[index + 1], size, quoted[index + 1], true));
+
+    for (int index = 1; index < chunkCount; index++) {
+      boundaries[index] = Math.max(boundaries[index - 1], aligned[index - 1]);
+    }
+
+    return boundaries;
+  }
+
+  /**
+   * Runs the tasks on the pool with at most parallelism * CHUNKS_PER_THREAD in flight, so that
+   * a file split into many ranges does not hold a read buffer for every range at once
+   */
+  private void runWindowed(final int count, final IntConsumer task) {
+    final int window = pool.getParallelism() * CHUNKS_PER_THREAD;
+    final List<ForkJoinTask<?>> running = new ArrayList<>(Math.min(count, window));
+
+    // Task i runs in slot i % window, taking over the slot of task i - window
+    for (int index = 0; index < Math.min(count, window); index++) {
+      final int next = index;
+      running.add(pool.submit(() -> task.accept(next)));
+    }
+
+    try {
+      for (int index = 0; index < count; index++) {
+        running.get(index % window).join();
+
+        if (index + window < count) {
+          final int next = index + window;
+          running.set(index % window, pool.submit(() -> task.accept(next)));
+        }
+      }
+    } catch (RuntimeException e) {
+      running.forEach(future -> future.cancel(false));
+      throw e;
+    }
+  }
+
+  /**
+   * Scans the byte range either counting qualifiers or, when findBreak is set, looking for the
+   * first line feed outside of a qualified field.
+   *
+   * @return The qualifier count, or the position after the line feed (end if none was found)
+   */
+  private long scan(
+      final FileChannel channel,
+      final long start,
+      final long end,
+      final boolean startQuoted,
+      final boolean findBreak) {
+    final byte qualifier = (byte) textQualifier;
+    final ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+
+    boolean quoted = startQuoted;
+    long qualifierCount = 0;
+    long position = start;
+
+    try {
+      while (position < end) {
+        buffer.clear();
+
+        if (end - position < buffer.capacity()) {
+          buffer.limit((int) (end - position));
+        }
+
+        final int read = channel.read(buffer, position);
+
+        if (read < 0) {
+          break;
+        }
+
+        final byte[] bytes = buffer.array();
+
+        for (int index = 0; index < read; index++) {
+          if (bytes[index] == qualifier) {
+            quoted = !quoted;
+            qualifierCount++;
+          } else if (findBreak && !quoted && bytes[index] == '\n') {
+            return position + index + 1;
+          }
+        }
+
+        position += read;
+      }
+    } catch (IOException e) {
+      throw ExceptionTools.checkedToRuntime(e);
+    }
+
+    return findBreak ? end : qualifierCount;
+  }
+
+  private static boolean isSingleByte(final char value, final Charset charset) {
+    final byte[] encoded = String.valueOf(value).getBytes(charset);
+    return encoded.length == 1 && encoded[0] == value;
+  }
+
+  private final class ChunkTask<T> extends RecursiveTask<List<T>> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final FileChannel channel;
+    private final long start;
+    private final long end;
+    private final Function<DelimitedRecord, T> mapper;
+    private final Consumer<? super T> consumer;
+    private final LongAdder recordCount;
+
+    private ChunkTask(
+        final FileChannel channel,
+        final long start,
+        final long end,
+        final Function<DelimitedRecord, T> mapper,
+        final Consumer<? super T> consumer,
+        final LongAdder recordCount) {
+      this.channel = channel;
+      this.start = start;
+      this.end = end;
+      this.mapper = mapper;
+      this.consumer = consumer;
+      this.recordCount = recordCount;
+    }
+
+    @Override
+    protected List<T> compute() {
+      final List<T> results = consumer == null ? new ArrayList<>() : null;
+
+      final DelimitedRecordParser parser = new DelimitedRecordParser(
+          delimiter,
+          textQualifier,
+          trimResults);
+
+      final Reader reader = new InputStreamReader(
+          new ChannelRangeInputStream(channel, start, end),
+          charset);
+
+      final long parsed = parser.parse(reader, record -> {
+        final T result = mapper.apply(record);
+
+        if (result == null) {
+          return;
+        }
+
+        if (results != null) {
+          results.add(result);
+        } else {
+          consumer.accept(result);
+        }
+      });
+
+      recordCount.add(parsed);
+
+      return results;
+    }
+  }
+
+  private static final class ChannelRangeInputStream extends InputStream {
+
+    private final FileChannel channel;
+    private final long end;
+    private long position;
+
+    private ChannelRangeInputStream(final FileChannel channel, final long start, final long end) {
+      this.channel = channel;
+      this.position = start;
+      this.end = end;
+    }
+
+    @Override
+    public int read() throws IOException {
+      final byte[] single = new byte[1];
+      return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+      if (position >= end) {
+        return -1;
+      }
+
+      final int toRead = (int) Math.min(length, end - position);
+
+      final int read = channel.read(ByteBuffer.wrap(bytes, offset, toRead), position);
+
+      if (read > 0) {
+        position += read;
+      }
+
+      return read;
+    }
+  }
+}
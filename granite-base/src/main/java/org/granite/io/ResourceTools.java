@@ -19,13 +19,14 @@ package org.granite.io;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
-import com.google.common.base.CharMatcher;
 import com.google.common.collect.ImmutableList;
+import com.google.common.io.CharStreams;
 import com.google.common.io.Resources;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.io.Serializable;
 import java.net.URL;
 import java.util.List;
@@ -33,6 +34,7 @@ import java.util.Map;
 import java.util.function.Function;
 import java.util.zip.GZIPInputStream;
 import org.granite.base.ExceptionTools;
+import org.granite.base.KeyValueParser;
 import org.granite.base.StringTools;
 import org.granite.log.LogTools;
 
@@ -120,14 +122,30 @@ public final class ResourceTools implements Serializable {
   public static Map<String, String> readResourceTextFileAsMap(final String resourceName) {
 
     checkNotNull(resourceName, "resourceName");
+    checkArgument(resourceName.trim().length() > 0, "Resource name is empty");
+
+    return KeyValueParser.CONFIG_LINES.parse(readResourceText(resourceName));
+  }
 
-    return StringTools
-        .convertStringsToMap(readResourceTextFile(
-            resourceName,
-            0,
-            row -> !StringTools.isNullOrEmpty(row) && !row.trim().startsWith("#"),
-            String::trim
-            ), CharMatcher.is('='), false);
+  /**
+   * Reads a whole text resource, decompressing .gz resources
+   *
+   * @return The text, or an empty string if the resource does not exist
+   */
+  private static String readResourceText(final String resourceName) {
+    final InputStream resourceStream = ResourceTools.readResource(resourceName);
 
+    if (resourceStream == null) {
+      LogTools.warn("Could not find embedded resource: {0}", resourceName);
+      return "";
+    }
+
+    try (Reader reader = new InputStreamReader(
+        resourceName.endsWith(".gz") ? new GZIPInputStream(resourceStream) : resourceStream)) {
+      return CharStreams.toString(reader);
+    } catch (IOException e) {
+      throw ExceptionTools.checkedToRuntime(e);
+    }
   }
+
 }
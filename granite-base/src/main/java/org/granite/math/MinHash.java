@@ -0,0 +1,241 @@
+/*
+ * Copyright (C) 2016 Charles Brophy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.granite.math;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+import org.granite.base.TextNormalizer;
+
+/**
+ * Computes MinHash signatures over the character shingles of normalized text.
+ *
+ * Text is normalized (by default the same way as StringTools.cleanText) into a per-thread
+ * buffer and every shingle is hashed with a rolling 64-bit hash, so computing a signature only
+ * allocates the signature itself. The fraction of equal positions in two signatures estimates
+ * the Jaccard similarity of the two shingle sets. Instances are immutable and thread safe.
+ */
+public final class MinHash implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private static final long ROLLING_PRIME = 0x100000001B3L;
+
+  private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[256]);
+
+  private final int numHashes;
+  private final int shingleSize;
+  private final TextNormalizer normalizer;
+
+  private final long[] multipliers;
+  private final long[] increments;
+  private final long rollingOut;
+
+  public MinHash(final int numHashes, final int shingleSize, final long seed) {
+    this(numHashes, shingleSize, seed, TextNormalizer.LOWER_ALPHA);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param numHashes The signature length
+   * @param shingleSize The number of characters per shingle
+   * @param seed Seeds the hash functions; signatures are only comparable for equal seeds
+   * @param normalizer Normalizes text before shingling
+   */
+  public MinHash(
+      final int numHashes,
+      final int shingleSize,
+      final long seed,
+      final TextNormalizer normalizer) {
+    checkArgument(numHashes > 0, "numHashes must be a positive number");
+    checkArgument(shingleSize > 0, "shingleSize must be a positive number");
+
+    this.numHashes = numHashes;
+    this.shingleSize = shingleSize;
+    this.normalizer = checkNotNull(normalizer, "normalizer");
+
+    final SplittableRandom random = new SplittableRandom(seed);
+
+    multipliers = new long[numHashes];
+    increments = new long[numHashes];
+
+    for (int index = 0; index < numHashes; index++) {
+      multipliers[index] = random.nextLong() | 1L;
+      increments[index] = random.nextLong();
+    }
+
+    long power = 1L;
+
+    for (int index = 1; index < shingleSize; index++) {
+      power *= ROLLING_PRIME;
+    }
+
+    rollingOut = power;
+  }
+
+  public int getNumHashes() {
+    return numHashes;
+  }
+
+  public int getShingleSize() {
+    return shingleSize;
+  }
+
+  public int[] signature(final CharSequence text) {
+    final int[] result = new int[numHashes];
+    signature(text, result);
+    return result;
+  }
+
+  /**
+   * Writes the signature of the text into the destination. Text with no characters left after
+   * normalization gets a signature of Integer.MAX_VALUE in every position.
+   *
+   * @param text The text to sign
+   * @param destination An array of at least numHashes elements
+   */
+  public void signature(final CharSequence text, final int[] destination) {
+    checkNotNull(text, "text");
+    checkNotNull(destination, "destination");
+    checkArgument(destination.length >= numHashes,
+        "destination must hold %s hashes", numHashes);
+
+    char[] buffer = BUFFER.get();
+
+    if (buffer.length < text.length()) {
+      buffer = new char[Math.max(text.length(), buffer.length << 1)];
+      BUFFER.set(buffer);
+    }
+
+    final int length = normalizer.normalize(text, buffer, 0);
+
+    Arrays.fill(destination, 0, numHashes, Integer.MAX_VALUE);
+
+    if (length == 0) {
+      return;
+    }
+
+    // Text shorter than a shingle is a single shingle
+    final int window = Math.min(shingleSize, length);
+    long rolling = 0L;
+
+    for (int index = 0; index < window; index++) {
+      rolling = rolling * ROLLING_PRIME + buffer[index];
+    }
+
+    update(rolling, destination);
+
+    for (int index = window; index < length; index++) {
+      rolling = (rolling - buffer[index - window] * rollingOut) * ROLLING_PRIME + buffer[index];
+      update(rolling, destination);
+    }
+  }
+
+  /**
+   * Computes the signatures of all texts in parallel
+   *
+   * @param texts The texts to sign
+   * @return One signature per text, in the same order
+   */
+  public int[][] signatures(final List<? extends CharSequence> texts) {
+    checkNotNull(texts, "texts");
+
+    final int[][] result = new int[texts.size()][];
+
+    IntStream.range(0, texts.size())
+        .parallel()
+        .forEach(index -> result[index] = signature(texts.get(index)));
+
+    return result;
+  }
+
+  /**
+   * Estimates the Jaccard similarity of the texts behind two signatures
+   *
+   * @param first A signature
+   * @param second A signature of the same length
+   * @return The fraction of positions at which the signatures agree
+   */
+  public static double estimateSimilarity(final int[] first, final int[] second) {
+    checkNotNull(first, "first");
+    checkNotNull(second, "second");
+    checkArgument(first.length == second.length, "Signatures must have the same length");
+
+    return estimateSimilarity(first, second, first.length);
+  }
+
+  /**
+   * Estimates the Jaccard similarity from the leading hashes of two signatures, which lets
+   * signatures be compared on a common prefix without copying them
+   *
+   * @param first A signature
+   * @param second A signature
+   * @param length The number of leading hashes to compare, at most the length of either
+   * @return The fraction of those positions at which the signatures agree
+   */
+  public static double estimateSimilarity(
+      final int[] first,
+      final int[] second,
+      final int length) {
+    checkNotNull(first, "first");
+    checkNotNull(second, "second");
+    checkArgument(length >= 0 && length <= first.length && length <= second.length,
+        "length must be between 0 and the length of both signatures");
+
+    if (length == 0) {
+      return 0.0;
+    }
+
+    int equal = 0;
+
+    for (int index = 0; index < length; index++) {
+      if (first[index] == second[index]) {
+        equal++;
+      }
+    }
+
+    return (double) equal / length;
+  }
+
+
+  private void update(final long shingleHash, final int[] destination) {
+    final long mixed = mix(shingleHash);
+
+    for (int index = 0; index < numHashes; index++) {
+      final int hash = (int) ((multipliers[index] * mixed + increments[index]) >>> 33);
+
+      if (hash < destination[index]) {
+        destination[index] = hash;
+      }
+    }
+  }
+
+  private static long mix(final long value) {
+    long mixed = value;
+    mixed ^= mixed >>> 33;
+    mixed *= 0xff51afd7ed558ccdL;
+    mixed ^= mixed >>> 33;
+    mixed *= 0xc4ceb9fe1a85ec53L;
+    mixed ^= mixed >>> 33;
+    return mixed;
+  }
+}
@@ -0,0 +1,46 @@
+package org.granite.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class CharSliceTest {
+
+  @Test
+  public void testSlice() {
+    final CharSlice slice = new CharSlice("granite-utilities", 8, 17);
+
+    assertEquals(9, slice.length());
+    assertEquals('u', slice.charAt(0));
+    assertEquals("utilities", slice.toString());
+    assertEquals("til", slice.subSequence(1, 4).toString());
+    assertEquals(0, slice.subSequence(3, 3).length());
+    assertTrue(slice.contentEquals("utilities"));
+    assertFalse(slice.contentEquals("utility"));
+    assertFalse(slice.contentEquals(null));
+  }
+
+  @Test
+  public void testMutableSource() {
+    final StringBuilder source = new StringBuilder("abcdef");
+    final CharSlice slice = new CharSlice(source, 2, 4);
+
+    assertEquals("cd", slice.toString());
+
+    source.setCharAt(2, 'x');
+
+    assertEquals("xd", slice.toString());
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testCharAtOutOfRange() {
+    new CharSlice("abcdef", 1, 3).charAt(2);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testInvalidRange() {
+    new CharSlice("abc", 2, 1);
+  }
+}
@@ -0,0 +1,117 @@
+package org.granite.base;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+import org.junit.Test;
+
+public class EditDistanceTest {
+
+  private static int reference(final String first, final String second) {
+    int[] previous = new int[second.length() + 1];
+    int[] current = new int[second.length() + 1];
+
+    for (int column = 0; column <= second.length(); column++) {
+      previous[column] = column;
+    }
+
+    for (int row = 1; row <= first.length(); row++) {
+      current[0] = row;
+
+      for (int column = 1; column <= second.length(); column++) {
+        final int cost = first.charAt(row - 1) == second.charAt(column - 1) ? 0 : 1;
+        current[column] = Math.min(previous[column - 1] + cost,
+            Math.min(previous[column], current[column - 1]) + 1);
+      }
+
+      final int[] swap = previous;
+      previous = current;
+      current = swap;
+    }
+
+    return previous[second.length()];
+  }
+
+  private static String randomString(
+      final Random random,
+      final int length,
+      final String alphabet) {
+    final StringBuilder builder = new StringBuilder(length);
+
+    for (int index = 0; index < length; index++) {
+      builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+    }
+
+    return builder.toString();
+  }
+
+  @Test
+  public void testKnownDistances() {
+    assertEquals(0, EditDistance.levenshtein("", ""));
+    assertEquals(4, EditDistance.levenshtein("book", ""));
+    assertEquals(3, EditDistance.levenshtein("kitten", "sitting"));
+    assertEquals(3, EditDistance.levenshtein("sitting", "kitten"));
+    assertEquals(2, EditDistance.levenshtein("\u00f1and\u00fa", "nandu"));
+  }
+
+  @Test
+  public void testBounded() {
+    assertEquals(3, EditDistance.levenshtein("kitten", "sitting", 3));
+    assertEquals(-1, EditDistance.levenshtein("kitten", "sitting", 2));
+    assertEquals(-1, EditDistance.levenshtein("a", "abcd", 2));
+    assertEquals(0, EditDistance.levenshtein("same", "same", 0));
+  }
+
+  @Test
+  public void testMatchesReference() {
+    final Random random = new Random(42);
+    final String[] alphabets = {
+        "ab", "acgt", "abcdefghijklmnopqrstuvwxyz", "a\u00e9\u00df\u0436\u6f22"};
+
+    for (int trial = 0; trial < 2000; trial++) {
+      final String alphabet = alphabets[trial % alphabets.length];
+      final int maxLength = trial % 3 == 0 ? 300 : 70;
+
+      final String first = randomString(random, random.nextInt(maxLength), alphabet);
+      final String second = random.nextBoolean()
+          ? randomString(random, random.nextInt(maxLength), alphabet)
+          : mutate(random, first, alphabet);
+
+      final int expected = reference(first, second);
+
+      assertEquals(first + " / " + second, expected, EditDistance.levenshtein(first, second));
+
+      final int threshold = random.nextInt(expected + 5);
+
+      assertEquals(first + " / " + second + " <= " + threshold,
+          expected <= threshold ? expected : -1,
+          EditDistance.levenshtein(first, second, threshold));
+    }
+  }
+
+  private static String mutate(final Random random, final String value, final String alphabet) {
+    final StringBuilder builder = new StringBuilder(value);
+
+    for (int edit = random.nextInt(6); edit > 0; edit--) {
+      final int position = builder.length() == 0 ? 0 : random.nextInt(builder.length());
+      final char replacement = alphabet.charAt(random.nextInt(alphabet.length()));
+
+      switch (random.nextInt(3)) {
+        case 0:
+          builder.insert(position, replacement);
+          break;
+        case 1:
+          if (builder.length() > 0) {
+            builder.deleteCharAt(position);
+          }
+          break;
+        default:
+          if (builder.length() > 0) {
+            builder.setCharAt(position, replacement);
+          }
+      }
+    }
+
+    return builder.toString();
+  }
+}
@@ -0,0 +1,98 @@
+package org.granite.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.base.CharMatcher;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.Map;
+import org.junit.Test;
+
+public class KeyValueParserTest {
+
+  private static final String TEST_ENTRIES = "k1=v1,k2=v2, k2 = ,k3=v3,k3 = v4 ,k4=,k5=k4=,=v6,k7";
+
+  @Test
+  public void testParse() {
+    final Map<String, String> withEmpty = new KeyValueParser(
+        CharMatcher.is(','),
+        CharMatcher.is('='),
+        false,
+        false).parse(TEST_ENTRIES);
+
+    assertEquals(5, withEmpty.size());
+    assertEquals("v1", withEmpty.get("k1"));
+    assertEquals("", withEmpty.get("k2"));
+    assertEquals("v4", withEmpty.get("k3"));
+    assertEquals("", withEmpty.get("k4"));
+    assertEquals("k4=", withEmpty.get("k5"));
+
+    final Map<String, String> withoutEmpty = new KeyValueParser(
+        CharMatcher.is(','),
+        CharMatcher.is('='),
+        true,
+        false).parse(TEST_ENTRIES);
+
+    assertEquals(4, withoutEmpty.size());
+    assertEquals("v2", withoutEmpty.get("k2"));
+  }
+
+  @Test
+  public void testCharArrayAndConverter() {
+    final char[] buffer = "xx\na = 1\r\nb=2\n\n# c\nd=40".toCharArray();
+
+    final Map<String, Integer> result = new KeyValueParser(
+        CharMatcher.anyOf("\r\n"),
+        CharMatcher.is('='),
+        true,
+        false).parse(buffer, 3, buffer.length - 3, Integer::valueOf);
+
+    assertEquals(3, result.size());
+    assertEquals(1, (int) result.get("a"));
+    assertEquals(2, (int) result.get("b"));
+    assertEquals(40, (int) result.get("d"));
+  }
+
+  @Test
+  public void testDedupeValues() {
+    final Map<String, String> result = new KeyValueParser(
+        CharMatcher.is(';'),
+        CharMatcher.is(':'),
+        true,
+        true).parse(new StringBuilder("a:US;b:CA;c:US"));
+
+    assertEquals("US", result.get("a"));
+    assertSame(result.get("a"), result.get("c"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullConversion() {
+    new KeyValueParser(CharMatcher.is(','), CharMatcher.is('='), true, false)
+        .parse("a=1", value -> null);
+  }
+
+  @Test
+  public void testImmutableInOrder() {
+    final Map<String, String> result = new KeyValueParser(
+        CharMatcher.is(','),
+        CharMatcher.is('='),
+        false,
+        false).parse(TEST_ENTRIES);
+
+    assertTrue(result instanceof ImmutableMap);
+    // Duplicates keep the position of their last occurrence
+    assertEquals(ImmutableList.of("k1", "k2", "k3", "k4", "k5"),
+        ImmutableList.copyOf(result.keySet()));
+  }
+
+  @Test
+  public void testConfigLines() {
+    final Map<String, String> result = KeyValueParser.CONFIG_LINES.parse(
+        "# header\r\nname = granite\n  #skipped = true\n\nempty=\r\nname=base\nurl=a=b\n");
+
+    assertEquals(ImmutableMap.of("empty", "", "name", "base", "url", "a=b"), result);
+    assertEquals(ImmutableList.of("empty", "name", "url"), ImmutableList.copyOf(result.keySet()));
+  }
+}
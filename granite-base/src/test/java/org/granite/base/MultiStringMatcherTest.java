@@ -0,0 +1,73 @@
+package org.granite.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class MultiStringMatcherTest {
+
+  @Test
+  public void testContainsAny() {
+    final MultiStringMatcher matcher = new MultiStringMatcher("tree", "dog", "cat", "");
+
+    assertEquals(3, matcher.getPatternCount());
+    assertTrue(matcher.containsAny("the quick brown fox jumped over the lazy dog"));
+    assertFalse(matcher.containsAny("the quick brown fox jumped over the lazy do"));
+    assertFalse(matcher.containsAny(""));
+    assertFalse(new MultiStringMatcher().containsAny("anything"));
+  }
+
+  @Test
+  public void testFindAllOverlapping() {
+    final MultiStringMatcher matcher = new MultiStringMatcher("he", "she", "his", "hers");
+
+    assertEquals(ImmutableList.of("she", "he", "hers"), matcher.findAll("ushers"));
+
+    final List<String> positions = new ArrayList<>();
+
+    final int count = matcher.findAll("ahishers", (patternIndex, start, end) -> {
+      positions.add(matcher.getPattern(patternIndex) + "@" + start + "-" + end);
+      return true;
+    });
+
+    assertEquals(4, count);
+    assertEquals(ImmutableList.of("his@1-4", "she@3-6", "he@4-6", "hers@4-8"), positions);
+  }
+
+  @Test
+  public void testStopEarly() {
+    final MultiStringMatcher matcher = new MultiStringMatcher("a");
+
+    assertEquals(1, matcher.findAll("aaaa", (patternIndex, start, end) -> false));
+  }
+
+  @Test
+  public void testIgnoreCase() {
+    final MultiStringMatcher matcher = new MultiStringMatcher(
+        ImmutableList.of("Blocked", "\u00c9T\u00c9"), true);
+
+    assertTrue(matcher.containsAny("this is BLOCKED"));
+    assertEquals(ImmutableList.of("\u00e9t\u00e9"), matcher.findAll("en \u00e9T\u00c9"));
+    assertFalse(new MultiStringMatcher("Blocked").containsAny("blocked"));
+  }
+
+  @Test
+  public void testManyPatterns() {
+    final List<String> patterns = new ArrayList<>();
+
+    for (int index = 0; index < 5000; index++) {
+      patterns.add("term" + index + "x");
+    }
+
+    final MultiStringMatcher matcher = new MultiStringMatcher(patterns, false);
+
+    assertTrue(matcher.containsAny("some text with term4999x in it"));
+    assertFalse(matcher.containsAny("some text with term5000x in it"));
+    assertEquals(ImmutableList.of("term12x", "term3x"), matcher.findAll("term12x term3x"));
+  }
+}
@@ -0,0 +1,90 @@
+package org.granite.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.base.CharMatcher;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import org.junit.Test;
+
+public class StringPoolTest {
+
+  @Test
+  public void testIntern() {
+    final StringPool pool = StringPool.striped(64, 4);
+
+    final String first = pool.intern(new StringBuilder("USD"));
+    final String second = pool.intern("xxUSDxx", 2, 5);
+    final String third = pool.intern("[USD]".toCharArray(), 1, 3);
+
+    assertEquals("USD", first);
+    assertSame(first, second);
+    assertSame(first, third);
+    assertNotSame(first, pool.intern("EUR"));
+    assertEquals("", pool.intern(""));
+  }
+
+  @Test
+  public void testBounded() {
+    final StringPool pool = StringPool.striped(16, 2);
+
+    assertEquals(16, pool.getCapacity());
+
+    final String original = pool.intern("value0");
+
+    for (int index = 1; index < 1000; index++) {
+      pool.intern("value" + index);
+    }
+
+    // Still correct after eviction, just no longer the same instance
+    assertEquals(original, pool.intern("value0"));
+  }
+
+  @Test
+  public void testWeak() {
+    final StringPool pool = StringPool.weak(128, 1);
+
+    assertTrue(pool.isWeak());
+
+    final String held = pool.intern("CA");
+
+    assertSame(held, pool.intern(new StringBuilder("CA")));
+  }
+
+  @Test
+  public void testConcurrentIntern() {
+    final StringPool pool = StringPool.striped(1024, 8);
+    final Map<String, String> seen = new ConcurrentHashMap<>();
+
+    IntStream.range(0, 100_000)
+        .parallel()
+        .forEach(index -> {
+          final String value = pool.intern(new StringBuilder("status").append(index % 10));
+          final String previous = seen.putIfAbsent(value, value);
+
+          assertSame(previous == null ? value : previous, value);
+        });
+
+    assertEquals(10, seen.size());
+  }
+
+  @Test
+  public void testParsersUsePool() {
+    final StringPool pool = StringPool.striped(64, 1);
+    final String country = pool.intern("US");
+
+    final Map<String, String> result = new KeyValueParser(
+        CharMatcher.is(','),
+        CharMatcher.is('='),
+        true,
+        pool).parse("a=US,b=CA,c=US");
+
+    assertSame(country, result.get("a"));
+    assertSame(country, result.get("c"));
+    assertSame(pool.intern("CA"), result.get("b"));
+  }
+}
@@ -18,6 +18,7 @@ package org.granite.base;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import com.google.common.base.CharMatcher;
@@ -38,6 +39,12 @@ public class StringToolsTest {
     assertTrue(StringTools.isNullOrEmpty(test2));
     assertFalse(StringTools.isNullOrEmpty(test3));
     assertFalse(StringTools.isNullOrEmpty(test4));
+
+    assertTrue(StringTools.isNullOrEmpty(new StringBuilder(" \t\n")));
+    assertFalse(StringTools.isNullOrEmpty(new StringBuilder(" x ")));
+    assertTrue(StringTools.isNullOrEmpty("abc   def", 3, 6));
+    assertFalse(StringTools.isNullOrEmpty("abc   def", 2, 6));
+    assertTrue(StringTools.isNullOrEmpty(null, 0, 0));
   }
 
   @Test
@@ -45,6 +52,8 @@ public class StringToolsTest {
     assertTrue(StringTools.anyNullOrEmpty("test", "", "test2", "   "));
     assertTrue(StringTools.anyNullOrEmpty("test1", null, "tet"));
     assertFalse(StringTools.anyNullOrEmpty("test1", "Test2", "test3"));
+    assertTrue(StringTools.anyNullOrEmpty(new StringBuilder("a"), StringTools.slice(" b ", 0, 1)));
+    assertFalse(StringTools.anyNullOrEmpty(new StringBuilder("a"), StringTools.slice(" b ", 0, 2)));
   }
 
   @Test
@@ -54,6 +63,32 @@ public class StringToolsTest {
     assertEquals("h", StringTools.truncate(test1, 1));
     assertEquals("hell", StringTools.truncate(test1, 4));
     assertEquals("hello", StringTools.truncate(test1, 900));
+
+    final StringBuilder test2 = new StringBuilder("hello");
+
+    assertSame(test2, StringTools.truncate(test2, 5));
+    assertEquals("hel", StringTools.truncate(test2, 3).toString());
+  }
+
+  @Test
+  public void testViews() {
+    assertEquals("ell", StringTools.slice("hello", 1, 4).toString());
+    assertEquals("a b", StringTools.trimView("  a b\t").toString());
+    assertEquals("", StringTools.trimView("   ").toString());
+
+    final List<CharSlice> views = StringTools.splitToViews(" a, b ,,c ", CharMatcher.is(','), true);
+
+    assertEquals(4, views.size());
+    assertTrue(views.get(0).contentEquals("a"));
+    assertTrue(views.get(1).contentEquals("b"));
+    assertTrue(views.get(2).contentEquals(""));
+    assertTrue(views.get(3).contentEquals("c"));
+
+    final List<CharSlice> untrimmed = StringTools.splitToViews("a;;b;", CharMatcher.is(';'), false);
+
+    assertEquals(4, untrimmed.size());
+    assertEquals("b", untrimmed.get(2).toString());
+    assertEquals("", untrimmed.get(3).toString());
   }
 
   @Test
@@ -91,6 +126,14 @@ public class StringToolsTest {
 
   }
 
+  @Test
+  public void testCleanText() {
+    assertEquals("hello world", StringTools.cleanText("Hello, World! 123"));
+    assertEquals("", StringTools.cleanText(""));
+    assertEquals("the quick fox", StringTools.cleanSentence("The", null, "quick", "FOX."));
+    assertEquals("", StringTools.cleanSentence());
+  }
+
   @Test
   public void testLevenshtein() {
     assertEquals(4, StringTools.levenshtein("book", ""));
@@ -98,6 +141,9 @@ public class StringToolsTest {
     assertEquals(1, StringTools.levenshtein("pins", "pines"));
     assertEquals(4, StringTools.levenshtein("emit", "time"));
     assertEquals(8, StringTools.levenshtein("emit", "sauvignon"));
+
+    assertEquals(2, StringTools.levenshtein("book", "back", 2));
+    assertEquals(-1, StringTools.levenshtein("emit", "sauvignon", 7));
   }
 
   @Test
@@ -166,5 +212,8 @@ public class StringToolsTest {
     assertTrue(StringTools.containsAny(test, "tree","dog","cat"));
     assertFalse(StringTools.containsAny(test, "","burger","mouse"));
     assertFalse(StringTools.containsAny(test, ""));
+
+    assertTrue(StringTools.containsAny(test, new MultiStringMatcher("tree", "dog", "cat")));
+    assertFalse(StringTools.containsAny(test, new MultiStringMatcher("", "burger", "mouse")));
   }
 }
\ No newline at end of file
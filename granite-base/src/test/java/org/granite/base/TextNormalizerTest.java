@@ -0,0 +1,115 @@
+package org.granite.base;
+
+import static com.google.common.base.CharMatcher.inRange;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import com.google.common.base.CharMatcher;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Random;
+import org.junit.Test;
+
+public class TextNormalizerTest {
+
+  @Test
+  public void testLowerAlpha() {
+    final TextNormalizer normalizer = TextNormalizer.LOWER_ALPHA;
+
+    assertEquals("hello world", normalizer.normalize("  Hello,   WORLD!! "));
+    assertEquals("", normalizer.normalize("1234 !?"));
+    assertEquals("", normalizer.normalize(""));
+    assertEquals("caf", normalizer.normalize("Caf\u00e9"));
+  }
+
+  @Test
+  public void testMatchesCharMatcherComposition() {
+    final Random random = new Random(3);
+
+    for (int trial = 0; trial < 500; trial++) {
+      final char[] chars = new char[random.nextInt(40)];
+
+      for (int index = 0; index < chars.length; index++) {
+        chars[index] = (char) (' ' + random.nextInt(96));
+      }
+
+      final String value = new String(chars);
+
+      final String expected = inRange('a', 'z')
+          .or(inRange('A', 'Z'))
+          .negate()
+          .collapseFrom(value.toLowerCase(), ' ')
+          .trim();
+
+      assertEquals(expected, TextNormalizer.LOWER_ALPHA.normalize(value));
+    }
+  }
+
+  @Test
+  public void testBuffers() {
+    final StringBuilder builder = new StringBuilder("prefix:");
+
+    TextNormalizer.LOWER_ALPHA.normalize("-A-b-", builder);
+    assertEquals("prefix:a b", builder.toString());
+
+    final char[] destination = new char[14];
+    final int written = TextNormalizer.LOWER_ALPHA.normalize("..Some  TEXT", destination, 2);
+
+    assertEquals(9, written);
+    assertEquals("some text", new String(destination, 2, written));
+  }
+
+  @Test
+  public void testNormalizeJoined() {
+    final StringBuilder builder = new StringBuilder();
+
+    TextNormalizer.LOWER_ALPHA.normalizeJoined(
+        new String[]{"  The", null, "", "quick!", "BROWN  "},
+        builder);
+
+    assertEquals("the quick brown", builder.toString());
+  }
+
+  @Test
+  public void testCustomClasses() {
+    final TextNormalizer normalizer = new TextNormalizer(
+        CharMatcher.forPredicate(Character::isLetterOrDigit),
+        false,
+        '_');
+
+    assertArrayEquals(
+        new String[]{"Order_66", null, "", "\u00e9t\u00e9_2019"},
+        normalizer.normalizeEach(new String[]{"Order #66", null, "  ", "\u00e9t\u00e9 (2019)"}));
+  }
+
+  @Test
+  public void testSerialization() throws Exception {
+    final TextNormalizer normalizer = new TextNormalizer(
+        CharMatcher.forPredicate(Character::isLetterOrDigit),
+        true,
+        '-');
+
+    for (TextNormalizer original : new TextNormalizer[]{TextNormalizer.LOWER_ALPHA, normalizer}) {
+      final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+      try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+        output.writeObject(original);
+      }
+
+      final TextNormalizer copy;
+
+      try (ObjectInputStream input =
+          new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+        copy = (TextNormalizer) input.readObject();
+      }
+
+      final String text = "  \u00c9t\u00e9 Caf\u00e9, Order #66!! ";
+
+      assertEquals(original.isLowerCase(), copy.isLowerCase());
+      assertEquals(original.getSeparator(), copy.getSeparator());
+      assertEquals(original.normalize(text), copy.normalize(text));
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package org.granite.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import org.junit.Test;
+
+public class TimeOrderedUuidGeneratorTest {
+
+  @Test
+  public void testLayout() {
+    final TimeOrderedUuidGenerator generator = new TimeOrderedUuidGenerator(() -> 1700000000123L);
+    final UUID uuid = generator.generate();
+
+    assertEquals(7, uuid.version());
+    assertEquals(2, uuid.variant());
+    assertEquals(1700000000123L, TimeOrderedUuidGenerator.getTimestamp(uuid));
+    assertTrue(uuid.toString().startsWith("018bcfe5-687b-7"));
+  }
+
+  @Test
+  public void testMonotonicWithinMillisecond() {
+    final TimeOrderedUuidGenerator generator = new TimeOrderedUuidGenerator(() -> 1000L);
+
+    UUID previous = generator.generate();
+
+    // More ids than the counter holds, so later ids borrow the following milliseconds
+    for (int index = 0; index < 10000; index++) {
+      final UUID next = generator.generate();
+
+      assertTrue(next.compareTo(previous) > 0);
+      previous = next;
+    }
+
+    assertEquals(1002L, TimeOrderedUuidGenerator.getTimestamp(previous));
+  }
+
+  @Test
+  public void testClockGoingBackwards() {
+    final long[] now = {5000L};
+    final TimeOrderedUuidGenerator generator = new TimeOrderedUuidGenerator(() -> now[0]);
+
+    final UUID first = generator.generate();
+    now[0] = 4000L;
+    final UUID second = generator.generate();
+
+    assertTrue(second.compareTo(first) > 0);
+    assertEquals(5000L, TimeOrderedUuidGenerator.getTimestamp(second));
+  }
+
+  @Test
+  public void testBatch() {
+    final TimeOrderedUuidGenerator generator = new TimeOrderedUuidGenerator(() -> 42L);
+
+    final UUID[] batch = generator.generate(5000);
+    final UUID[] sorted = batch.clone();
+    Arrays.sort(sorted);
+
+    assertEquals(5000, batch.length);
+    assertTrue(Arrays.equals(sorted, batch));
+    assertEquals(5000, new HashSet<>(Arrays.asList(batch)).size());
+    assertTrue(generator.generate().compareTo(batch[4999]) > 0);
+    assertEquals(0, generator.generate(0).length);
+  }
+
+  @Test
+  public void testConcurrentUniqueness() {
+    final TimeOrderedUuidGenerator generator = new TimeOrderedUuidGenerator();
+    final Set<UUID> seen = ConcurrentHashMap.newKeySet();
+
+    IntStream.range(0, 8).parallel().forEach(thread -> {
+      UUID previous = null;
+
+      for (int index = 0; index < 20000; index++) {
+        final UUID next = generator.generate();
+
+        assertTrue(previous == null || next.compareTo(previous) > 0);
+        assertTrue(seen.add(next));
+        previous = next;
+      }
+    });
+
+    assertEquals(160000, seen.size());
+    assertEquals(7, UUIDTools.timeOrderedUuid().version());
+    assertEquals(3, UUIDTools.timeOrderedUuids(3).length);
+  }
+}
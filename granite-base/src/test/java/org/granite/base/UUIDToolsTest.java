@@ -1,8 +1,15 @@
 package org.granite.base;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.SplittableRandom;
 import java.util.UUID;
 import org.junit.Test;
 
@@ -20,6 +27,20 @@ public class UUIDToolsTest {
 
     assertNull(UUIDTools.tryParse(""));
 
+    assertEquals(uuid, UUIDTools.tryParse("09E328AB-087D-443F-A55A-804BEDF3C334"));
+    assertEquals(uuid, UUIDTools.tryParse("09e328ab087d443fa55a804bedf3c334"));
+    assertEquals(uuid, UUIDTools.tryParse(
+        new StringBuilder("id=09e328ab-087d-443f-a55a-804bedf3c334;"), 3, 39));
+    assertEquals(new UUID(-1L, -1L), UUIDTools.tryParse("ffffffff-ffff-ffff-ffff-ffffffffffff"));
+    assertEquals(new UUID(0L, 0L), UUIDTools.tryParse("00000000000000000000000000000000"));
+
+    assertNull(UUIDTools.tryParse("09e328ab-087d-443f-a55a-804bedf3c33"));
+    assertNull(UUIDTools.tryParse("09e328ab-087d-443f-a55a-804bedf3c3345"));
+    assertNull(UUIDTools.tryParse("09e328ab0-87d-443f-a55a-804bedf3c334"));
+    assertNull(UUIDTools.tryParse("09e328ab-087d-443f-a55a-804bedf3c33g"));
+    assertNull(UUIDTools.tryParse("09e328ab-087d-443f-a55a-804bedf3c3\u0663"));
+    assertNull(UUIDTools.tryParse("09e328ab-087d-443f-a55a804bedf3c334"));
+    assertNull(UUIDTools.tryParse("1-2-3-4-5"));
   }
 
   @Test
@@ -36,4 +57,128 @@ public class UUIDToolsTest {
     assertEquals(uuid, test);
   }
 
-}
\ No newline at end of file
+  @Test
+  public void writeAndReadAtOffset() {
+    final byte[] buffer = new byte[40];
+    final int end = UUIDTools.writeUuid(uuid, buffer, 7);
+
+    assertEquals(23, end);
+    assertEquals(0, buffer[6]);
+    assertEquals((byte) 0x09, buffer[7]);
+    assertEquals((byte) 0x34, buffer[22]);
+    assertEquals(0, buffer[23]);
+    assertEquals(uuid, UUIDTools.readUuid(buffer, 7));
+    assertEquals(uuid.getMostSignificantBits(), UUIDTools.mostSignificantBits(buffer, 7));
+    assertEquals(uuid.getLeastSignificantBits(), UUIDTools.leastSignificantBits(buffer, 7));
+
+    final byte[] expected = ByteBuffer.allocate(16)
+        .putLong(uuid.getMostSignificantBits())
+        .putLong(uuid.getLeastSignificantBits())
+        .array();
+
+    assertArrayEquals(expected, UUIDTools.uuidToByteArray(uuid));
+    assertEquals(uuid, UUIDTools.byteArrayToUUID(expected));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void writeOutOfRange() {
+    UUIDTools.writeUuid(uuid, new byte[20], 5);
+  }
+
+  @Test
+  public void byteBuffers() {
+    final ByteBuffer bigEndian = ByteBuffer.allocate(40);
+    final ByteBuffer littleEndian = ByteBuffer.allocate(40).order(ByteOrder.LITTLE_ENDIAN);
+
+    bigEndian.position(3);
+    littleEndian.position(3);
+    UUIDTools.writeUuid(uuid, bigEndian);
+    UUIDTools.writeUuid(uuid, littleEndian);
+    UUIDTools.writeUuid(uuid, littleEndian, 20);
+
+    assertEquals(19, bigEndian.position());
+    final byte[] expected = Arrays.copyOfRange(bigEndian.array(), 3, 19);
+
+    assertArrayEquals(expected, Arrays.copyOfRange(littleEndian.array(), 3, 19));
+    assertArrayEquals(expected, Arrays.copyOfRange(littleEndian.array(), 20, 36));
+
+    bigEndian.position(3);
+    littleEndian.position(3);
+
+    assertEquals(uuid, UUIDTools.readUuid(bigEndian));
+    assertEquals(uuid, UUIDTools.readUuid(littleEndian));
+    assertEquals(uuid, UUIDTools.readUuid(littleEndian, 20));
+    assertEquals(uuid, UUIDTools.readUuid(bigEndian.array(), 3));
+  }
+
+  @Test
+  public void bulk() {
+    final UUID[] uuids = new UUID[100];
+
+    for (int index = 0; index < uuids.length; index++) {
+      uuids[index] = new UUID(index * 31L, -index);
+    }
+
+    final byte[] packed = UUIDTools.uuidsToByteArray(uuids);
+
+    assertEquals(1600, packed.length);
+    assertArrayEquals(uuids, UUIDTools.byteArrayToUUIDs(packed));
+    assertEquals(uuids[42], UUIDTools.readUuid(packed, 42 * 16));
+
+    final byte[] buffer = new byte[4 + 3 * 16];
+    final UUID[] copy = new UUID[5];
+
+    assertEquals(52, UUIDTools.writeUuids(uuids, 10, 3, buffer, 4));
+    assertEquals(52, UUIDTools.readUuids(buffer, 4, copy, 1, 3));
+    assertNull(copy[0]);
+    assertEquals(uuids[10], copy[1]);
+    assertEquals(uuids[12], copy[3]);
+    assertNull(copy[4]);
+  }
+
+  @Test
+  public void base64Url() {
+    assertEquals("CeMoqwh9RD-lWoBL7fPDNA", UUIDTools.uuidToBase64Url(uuid));
+    assertEquals(uuid, UUIDTools.base64UrlToUUID("CeMoqwh9RD-lWoBL7fPDNA"));
+
+    final Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+    final SplittableRandom random = new SplittableRandom(17);
+    final char[] buffer = new char[30];
+
+    for (int index = 0; index < 1000; index++) {
+      final UUID next = new UUID(random.nextLong(), random.nextLong());
+      final String expected = encoder.encodeToString(UUIDTools.uuidToByteArray(next));
+
+      assertEquals(expected, UUIDTools.uuidToBase64Url(next));
+      assertEquals(26, UUIDTools.uuidToBase64Url(next, buffer, 4));
+      assertEquals(expected, new String(buffer, 4, 22));
+      assertEquals(next, UUIDTools.base64UrlToUUID(new String(buffer), 4, 26));
+    }
+
+    final StringBuilder builder = new StringBuilder("id=");
+
+    UUIDTools.appendBase64Url(uuid, builder);
+
+    assertEquals("id=CeMoqwh9RD-lWoBL7fPDNA", builder.toString());
+    assertEquals(new UUID(-1L, -1L), UUIDTools.base64UrlToUUID("_____________________w"));
+  }
+
+  @Test
+  public void base64UrlInvalid() {
+    final String[] invalid = {
+        "CeMoqwh9RD-lWoBL7fPDN",
+        "CeMoqwh9RD+lWoBL7fPDNA",
+        "CeMoqwh9RD-lWoBL7fPDNB",
+        "CeMoqwh9RD-lWoBL7fP\u00e9NA"
+    };
+
+    for (String value : invalid) {
+      try {
+        UUIDTools.base64UrlToUUID(value);
+        fail(value);
+      } catch (IllegalArgumentException expected) {
+        // expected
+      }
+    }
+  }
+}
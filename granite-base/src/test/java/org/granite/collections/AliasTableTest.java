@@ -0,0 +1,43 @@
+package org.granite.collections;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.SplittableRandom;
+import org.junit.Test;
+
+public class AliasTableTest {
+
+  @Test
+  public void testDistribution() {
+    final double[] weights = {1.0, 0.0, 5.0, 2.0, 2.0};
+    final AliasTable table = new AliasTable(weights);
+    final SplittableRandom random = new SplittableRandom(43);
+    final int[] counts = new int[weights.length];
+
+    assertEquals(5, table.size());
+    assertEquals(0.5, table.getProbability(2), 1e-12);
+
+    for (int draw = 0; draw < 100000; draw++) {
+      counts[table.next(random)]++;
+    }
+
+    for (int index = 0; index < weights.length; index++) {
+      assertEquals(table.getProbability(index) * 100000, counts[index], 800);
+    }
+
+    assertEquals(0, counts[1]);
+  }
+
+  @Test
+  public void testSingleWeight() {
+    final AliasTable table = new AliasTable(new double[] {3.0});
+
+    assertEquals(0, table.next());
+    assertEquals(1.0, table.getProbability(0), 0.0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testAllZero() {
+    new AliasTable(new double[] {0.0, 0.0});
+  }
+}
@@ -0,0 +1,61 @@
+package org.granite.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.stream.IntStream;
+import org.granite.base.KeyValue;
+import org.junit.Test;
+
+public class ConcurrentFrequencyCounterTest {
+
+  @Test
+  public void testParallelCounting() {
+    final ConcurrentFrequencyCounter<String> counter = new ConcurrentFrequencyCounter<>();
+
+    // Heavily skewed: half of all updates hit one key
+    IntStream.range(0, 200000)
+        .parallel()
+        .forEach(value -> counter.increment(value % 2 == 0 ? "hot" : "key" + value % 100));
+
+    assertEquals(51, counter.size());
+    assertEquals(100000L, counter.get("hot"));
+    assertEquals(2000L, counter.get("key1"));
+    assertEquals(0L, counter.get("key2"));
+    assertEquals(0L, counter.get(null));
+
+    final List<KeyValue<String, Long>> top = counter.topN(2);
+
+    assertEquals("hot", top.get(0).getKey());
+    assertEquals(Long.valueOf(2000L), top.get(1).getValue());
+    assertEquals(counter.toMap(), counter.snapshot().toMap());
+  }
+
+  @Test
+  public void testMergeAndRemove() {
+    final ConcurrentFrequencyCounter<String> counter = new ConcurrentFrequencyCounter<>();
+    final FrequencyCounter<String> local = new FrequencyCounter<>();
+
+    local.increment("a", 3L);
+    local.increment("b", 1L);
+    counter.increment("a");
+
+    final ConcurrentFrequencyCounter<String> other = new ConcurrentFrequencyCounter<>();
+
+    other.increment("a", 4L);
+    other.increment("b");
+
+    counter.merge(local).merge(other);
+
+    assertEquals(8L, counter.get("a"));
+    assertTrue(counter.contains("b"));
+    assertEquals(2L, counter.remove("b"));
+    assertFalse(counter.contains("b"));
+
+    counter.clear();
+
+    assertTrue(counter.isEmpty());
+  }
+}
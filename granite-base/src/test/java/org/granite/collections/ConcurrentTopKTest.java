@@ -0,0 +1,72 @@
+package org.granite.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Test;
+
+public class ConcurrentTopKTest {
+
+  @Test
+  public void testParallelOffers() {
+    final ConcurrentTopK<Integer> topK = new ConcurrentTopK<>(10, Comparator.naturalOrder(), 4);
+
+    IntStream.range(0, 200000)
+        .parallel()
+        .map(value -> (value * 7919) % 200000)
+        .forEach(topK::offer);
+
+    final List<Integer> expected = IntStream.range(0, 10)
+        .map(value -> 199999 - value)
+        .boxed()
+        .collect(Collectors.toList());
+
+    assertEquals(expected, topK.toSortedList());
+    assertEquals(expected, topK.drainSorted());
+    assertEquals(0, topK.toSortedList().size());
+  }
+
+  @Test
+  public void testRejection() {
+    final ConcurrentTopK<Integer> topK = new ConcurrentTopK<>(2, Comparator.naturalOrder(), 1);
+
+    assertTrue(topK.offer(5));
+    assertTrue(topK.offer(6));
+    assertFalse(topK.offer(5));
+    assertFalse(topK.offer(1));
+    assertTrue(topK.offer(7));
+    assertEquals(Arrays.asList(7, 6), topK.toSortedList());
+
+    topK.clear();
+
+    assertTrue(topK.offer(1));
+  }
+
+  @Test
+  public void testMerge() {
+    final ConcurrentTopK<String> first = new ConcurrentTopK<>(3, Comparator.naturalOrder());
+    final ConcurrentTopK<String> second = new ConcurrentTopK<>(3, Comparator.naturalOrder());
+
+    first.offerAll(Arrays.asList("a", "d", "f"));
+    second.offerAll(Arrays.asList("b", "e", "g"));
+
+    assertEquals(Arrays.asList("g", "f", "e"), first.merge(second).toSortedList());
+    assertEquals(Arrays.asList("g", "e", "b"), second.toSortedList());
+  }
+
+  @Test
+  public void testCollector() {
+    final List<Integer> result = IntStream.range(0, 100000)
+        .parallel()
+        .boxed()
+        .collect(ConcurrentTopK.collector(3, Comparator.<Integer>reverseOrder()));
+
+    assertEquals(Arrays.asList(0, 1, 2), result);
+  }
+}
@@ -0,0 +1,95 @@
+package org.granite.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import org.junit.Test;
+
+public class CountMinSketchTest {
+
+  @Test
+  public void testNeverUnderestimates() {
+    final SplittableRandom random = new SplittableRandom(23);
+    final CountMinSketch sketch = CountMinSketch.forErrorBounds(0.001, 0.01, 7L);
+    final Map<String, Long> expected = new HashMap<>();
+
+    for (int index = 0; index < 100000; index++) {
+      // Roughly Zipfian so that a few items dominate
+      final String item = "item" + (int) Math.pow(random.nextInt(5000) + 1, 1.5);
+
+      sketch.add(item);
+      expected.merge(item, 1L, Long::sum);
+    }
+
+    assertEquals(100000L, sketch.getTotalCount());
+
+    final long bound = (long) Math.ceil(0.001 * sketch.getTotalCount());
+    int withinBound = 0;
+
+    for (Map.Entry<String, Long> entry : expected.entrySet()) {
+      final long estimate = sketch.estimate(entry.getKey());
+
+      assertTrue(estimate >= entry.getValue());
+
+      if (estimate - entry.getValue() <= bound) {
+        withinBound++;
+      }
+    }
+
+    assertTrue(withinBound >= expected.size() * 0.99);
+  }
+
+  @Test
+  public void testCounts() {
+    final CountMinSketch sketch = new CountMinSketch(64, 4, 1L);
+
+    sketch.add("a", 5L);
+    sketch.add(new StringBuilder("a"));
+    sketch.add(42L, 3L);
+    sketch.add("b", 0L);
+
+    assertEquals(6L, sketch.estimate("a"));
+    assertEquals(3L, sketch.estimate(42L));
+    assertEquals(9L, sketch.getTotalCount());
+    assertEquals(64, sketch.getWidth());
+    assertEquals(4, sketch.getDepth());
+  }
+
+  @Test
+  public void testMergeAndSerialize() {
+    final CountMinSketch first = new CountMinSketch(256, 5, 3L);
+    final CountMinSketch second = new CountMinSketch(256, 5, 3L);
+
+    for (int index = 0; index < 1000; index++) {
+      first.add("key" + (index % 17));
+      second.add("key" + (index % 13), 2L);
+    }
+
+    final CountMinSketch copy = CountMinSketch.fromByteArray(first.toByteArray());
+
+    assertEquals(first.getTotalCount(), copy.getTotalCount());
+    assertEquals(first.estimate("key3"), copy.estimate("key3"));
+
+    copy.merge(second);
+
+    assertEquals(3000L, copy.getTotalCount());
+    assertTrue(copy.estimate("key3") >= 59L + 154L);
+    assertTrue(copy.estimate("key15") >= 58L);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMergeMismatch() {
+    new CountMinSketch(256, 5, 3L).merge(new CountMinSketch(256, 5, 4L));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTruncated() {
+    final byte[] bytes = new CountMinSketch(16, 2, 0L).toByteArray();
+
+    CountMinSketch.fromByteArray(Arrays.copyOf(bytes, bytes.length - 1));
+  }
+}
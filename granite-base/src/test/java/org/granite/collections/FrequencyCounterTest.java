@@ -0,0 +1,82 @@
+package org.granite.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import org.granite.base.KeyValue;
+import org.junit.Test;
+
+public class FrequencyCounterTest {
+
+  @Test
+  public void testIncrement() {
+    final FrequencyCounter<String> counter = new FrequencyCounter<>(0);
+
+    assertEquals(1L, counter.increment("a"));
+    assertEquals(2L, counter.increment("a"));
+    assertEquals(5L, counter.increment("b", 5L));
+    assertEquals(Integer.MAX_VALUE + 7L, counter.increment("b", Integer.MAX_VALUE + 2L));
+
+    assertEquals(2, counter.size());
+    assertEquals(2L, counter.get("a"));
+    assertEquals(0L, counter.get("c"));
+    assertEquals(0L, counter.get(null));
+    assertTrue(counter.contains("b"));
+    assertFalse(counter.contains("c"));
+
+    assertEquals(2L, counter.remove("a"));
+    assertEquals(0L, counter.remove("a"));
+    assertEquals(1, counter.size());
+
+    counter.clear();
+
+    assertTrue(counter.isEmpty());
+  }
+
+  @Test
+  public void testMatchesHashMap() {
+    final SplittableRandom random = new SplittableRandom(19);
+    final FrequencyCounter<Integer> counter = new FrequencyCounter<>();
+    final Map<Integer, Long> expected = new HashMap<>();
+
+    for (int operation = 0; operation < 50000; operation++) {
+      final Integer key = random.nextInt(1000) * 1024;
+
+      if (random.nextInt(5) == 0) {
+        final Long removed = expected.remove(key);
+        assertEquals(removed == null ? 0L : removed, counter.remove(key));
+      } else {
+        final long delta = random.nextInt(10);
+        assertEquals((long) expected.merge(key, delta, Long::sum), counter.increment(key, delta));
+      }
+    }
+
+    assertEquals(expected, counter.toMap());
+  }
+
+  @Test
+  public void testTopNAndMerge() {
+    final FrequencyCounter<String> first = new FrequencyCounter<>();
+    final FrequencyCounter<String> second = new FrequencyCounter<>();
+
+    first.increment("x", 10L);
+    first.increment("y", 3L);
+    first.increment("z", 1L);
+    second.increment("y", 9L);
+    second.increment("w", 4L);
+
+    final List<KeyValue<String, Long>> top = first.merge(second).topN(2);
+
+    assertEquals(2, top.size());
+    assertEquals("y", top.get(0).getKey());
+    assertEquals(Long.valueOf(12L), top.get(0).getValue());
+    assertEquals("x", top.get(1).getKey());
+    assertEquals(4, first.topN(10).size());
+    assertEquals(2, second.size());
+  }
+}
@@ -0,0 +1,100 @@
+package org.granite.collections;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.granite.base.KeyValue;
+import org.granite.base.StringTools;
+import org.junit.Test;
+
+public class FuzzyStringIndexTest {
+
+  private static List<String> createDictionary() {
+    final Random random = new Random(7);
+    final List<String> result = new ArrayList<>();
+
+    for (int count = 0; count < 2000; count++) {
+      final StringBuilder builder = new StringBuilder();
+
+      for (int length = 3 + random.nextInt(6); length > 0; length--) {
+        builder.append((char) ('a' + random.nextInt(6)));
+      }
+
+      result.add(builder.toString());
+    }
+
+    return result;
+  }
+
+  private static List<KeyValue<String, Integer>> bruteForce(
+      final List<String> dictionary,
+      final String query,
+      final int maxDistance) {
+    final List<KeyValue<String, Integer>> result = new ArrayList<>();
+
+    dictionary
+        .stream()
+        .distinct()
+        .forEach(term -> {
+          final int distance = StringTools.levenshtein(query, term);
+
+          if (distance <= maxDistance) {
+            result.add(new KeyValue<>(term, distance));
+          }
+        });
+
+    result.sort(FuzzyStringIndex.MATCH_ORDER);
+
+    return result;
+  }
+
+  private static void assertMatches(
+      final List<KeyValue<String, Integer>> expected,
+      final List<KeyValue<String, Integer>> actual) {
+    assertEquals(expected.size(), actual.size());
+
+    for (int index = 0; index < expected.size(); index++) {
+      assertEquals(expected.get(index).getKey(), actual.get(index).getKey());
+      assertEquals(expected.get(index).getValue(), actual.get(index).getValue());
+    }
+  }
+
+  @Test
+  public void testIndexesMatchBruteForce() {
+    final List<String> dictionary = createDictionary();
+
+    final FuzzyStringIndex bkTree = new BKTreeStringIndex(dictionary);
+    final FuzzyStringIndex symSpell = new SymSpellStringIndex(dictionary, 2);
+
+    assertEquals(dictionary.stream().distinct().count(), bkTree.size());
+    assertEquals(bkTree.size(), symSpell.size());
+
+    for (String query : ImmutableList.of("abc", "fedcba", "aaaaaaa", "zz", "")) {
+      for (int distance = 0; distance <= 2; distance++) {
+        final List<KeyValue<String, Integer>> expected = bruteForce(dictionary, query, distance);
+
+        assertMatches(expected, bkTree.findWithin(query, distance));
+        assertMatches(expected, symSpell.findWithin(query, distance));
+      }
+
+      final List<KeyValue<String, Integer>> nearest = bruteForce(dictionary, query, 100)
+          .subList(0, 5);
+
+      assertMatches(nearest, bkTree.findNearest(query, 5));
+    }
+  }
+
+  @Test
+  public void testEmptyDictionary() {
+    assertEquals(0, new BKTreeStringIndex(ImmutableList.of()).findWithin("a", 1).size());
+    assertEquals(0, new SymSpellStringIndex(ImmutableList.of(), 1).findNearest("a", 1).size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSymSpellDistanceLimit() {
+    new SymSpellStringIndex(ImmutableList.of("test"), 1).findWithin("test", 2);
+  }
+}
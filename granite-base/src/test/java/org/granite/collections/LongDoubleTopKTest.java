@@ -0,0 +1,122 @@
+package org.granite.collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.granite.base.KeyValue;
+import org.junit.Test;
+
+public class LongDoubleTopKTest {
+
+  @Test
+  public void testHighest() {
+    final LongDoubleTopK topK = new LongDoubleTopK(3, true);
+
+    assertTrue(topK.offer(1L, 0.5));
+    assertTrue(topK.offer(2L, 0.9));
+    assertTrue(topK.offer(3L, 0.1));
+    assertTrue(topK.offer(4L, 0.7));
+    assertFalse(topK.offer(5L, 0.2));
+
+    assertEquals(1L, topK.peekLowestId());
+    assertEquals(0.5, topK.peekLowestScore(), 0.0);
+
+    final long[] ids = new long[3];
+    final double[] scores = new double[3];
+
+    assertEquals(3, topK.drainSorted(ids, scores));
+    assertArrayEquals(new long[]{2L, 4L, 1L}, ids);
+    assertArrayEquals(new double[]{0.9, 0.7, 0.5}, scores, 0.0);
+    assertTrue(topK.isEmpty());
+  }
+
+  @Test
+  public void testLowestWithTies() {
+    final LongDoubleTopK topK = new LongDoubleTopK(3, false);
+
+    topK.offer(9L, 1.0);
+    topK.offer(7L, 1.0);
+    topK.offer(8L, 1.0);
+    topK.offer(3L, 2.0);
+
+    // Equal scores rank by id, so 6 displaces 9 but 10 is rejected
+    assertTrue(topK.offer(6L, 1.0));
+    assertFalse(topK.offer(10L, 1.0));
+
+    final List<KeyValue<Long, Double>> result = topK.drainSorted();
+
+    assertEquals(3, result.size());
+    assertEquals(Long.valueOf(6L), result.get(0).getKey());
+    assertEquals(Long.valueOf(7L), result.get(1).getKey());
+    assertEquals(Long.valueOf(8L), result.get(2).getKey());
+  }
+
+  @Test
+  public void testMatchesSort() {
+    final SplittableRandom random = new SplittableRandom(13);
+
+    for (int round = 0; round < 50; round++) {
+      final int k = 1 + random.nextInt(50);
+      final boolean highest = random.nextBoolean();
+      final int count = random.nextInt(1000);
+
+      final LongDoubleTopK topK = new LongDoubleTopK(k, highest);
+      final List<KeyValue<Long, Double>> expected = new ArrayList<>();
+
+      for (int index = 0; index < count; index++) {
+        final double score = random.nextInt(20) / 4.0;
+
+        topK.offer(index, score);
+        expected.add(new KeyValue<>((long) index, score));
+      }
+
+      final Comparator<KeyValue<Long, Double>> byScore = Comparator.comparing(KeyValue::getValue);
+
+      expected.sort((highest ? byScore.reversed() : byScore)
+          .thenComparing(KeyValue::getKey));
+
+      final List<KeyValue<Long, Double>> actual = topK.drainSorted();
+
+      assertEquals(Math.min(k, count), actual.size());
+
+      for (int index = 0; index < actual.size(); index++) {
+        assertEquals(expected.get(index).getKey(), actual.get(index).getKey());
+        assertEquals(expected.get(index).getValue(), actual.get(index).getValue());
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNaN() {
+    new LongDoubleTopK(2, true).offer(1L, Double.NaN);
+  }
+
+  @Test
+  public void testMerge() {
+    final LongDoubleTopK first = new LongDoubleTopK(2, true);
+    final LongDoubleTopK second = new LongDoubleTopK(2, true);
+
+    first.offer(1L, 0.1);
+    first.offer(2L, 0.8);
+    second.offer(3L, 0.9);
+    second.offer(4L, 0.2);
+
+    final long[] ids = new long[2];
+    final double[] scores = new double[2];
+
+    assertEquals(2, first.merge(second).drainSorted(ids, scores));
+    assertArrayEquals(new long[]{3L, 2L}, ids);
+    assertEquals(2, second.size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMergeOrdering() {
+    new LongDoubleTopK(2, true).merge(new LongDoubleTopK(2, false));
+  }
+}
@@ -2,6 +2,7 @@ package org.granite.collections;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -31,6 +32,29 @@ public class MapToolsTest {
     assertEquals(2, (int) testMap2.get("2"));
     assertEquals(5, (int) testMap2.get("3"));
 
+    final FrequencyCounter<String> counter = new FrequencyCounter<>();
+
+    MapTools.updateFrequencyMap(ImmutableList.of("1", "2", "1"), counter, 2L);
+    MapTools.updateFrequencyMap(testMap2, counter);
+
+    assertEquals(8L, counter.get("1"));
+    assertEquals(4L, counter.get("2"));
+    assertEquals(5L, counter.get("3"));
+
+    final FrequencyCounter<String> total = new FrequencyCounter<>();
+
+    MapTools.updateFrequencyMap(counter, total);
+    MapTools.updateFrequencyMap(counter, total);
+
+    assertEquals(16L, total.get("1"));
+
+    final ConcurrentFrequencyCounter<String> shared = new ConcurrentFrequencyCounter<>();
+
+    MapTools.updateFrequencyMap(ImmutableList.of("1", "2"), shared, 1L);
+    MapTools.updateFrequencyMap(counter, shared);
+
+    assertEquals(9L, shared.get("1"));
+    assertEquals(5L, shared.get("2"));
   }
 
   @Test
@@ -48,4 +72,42 @@ public class MapToolsTest {
 
   }
 
+  @Test
+  public void testIntersectKeysCaseInsensitiveLarge() {
+    final Map<String, Integer> small = new HashMap<>();
+    final Map<Object, Object> large = new HashMap<>();
+
+    small.put("Alpha", 1);
+    small.put("ALPHA", 2);
+    small.put("\u00c9t\u00c9", 3);
+    small.put("missing", 4);
+
+    for (int index = 0; index < 10000; index++) {
+      large.put("key" + index, index);
+      large.put(index, index);
+    }
+
+    large.put("alpha", 0);
+    large.put("\u00e9T\u00e9", 0);
+
+    final Map<String, Object> intersection = MapTools.intersectKeysCaseInsensitive(small, large);
+
+    assertEquals(3, intersection.size());
+    assertEquals("alpha", intersection.get("Alpha"));
+    assertEquals("alpha", intersection.get("ALPHA"));
+    assertEquals("\u00e9T\u00e9", intersection.get("\u00c9t\u00c9"));
+
+    small.clear();
+
+    for (int index = 0; index < 30000; index++) {
+      small.put("KEY" + index, index);
+    }
+
+    final Map<String, Object> reversed = MapTools.intersectKeysCaseInsensitive(small, large);
+
+    assertEquals(10000, reversed.size());
+    assertEquals("key42", reversed.get("KEY42"));
+    assertNull(reversed.get("KEY10000"));
+  }
+
 }
\ No newline at end of file
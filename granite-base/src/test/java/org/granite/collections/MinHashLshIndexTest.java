@@ -0,0 +1,104 @@
+package org.granite.collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import java.util.Arrays;
+import java.util.List;
+import org.granite.math.MinHash;
+import org.junit.Test;
+
+public class MinHashLshIndexTest {
+
+  private static final List<String> DOCUMENTS = ImmutableList.of(
+      "Stainless steel water bottle, 750ml, keeps drinks cold for 24 hours",
+      "Wireless noise cancelling headphones with 30 hour battery life",
+      "Stainless steel water bottle 750 ml - keeps drinks cold for 24 hours!",
+      "Organic cotton t-shirt, crew neck, available in five colours",
+      "Wireless noise-cancelling headphones with a 30 hour battery life");
+
+  @Test
+  public void testCandidatePairs() {
+    final MinHash minHash = new MinHash(128, 4, 99L);
+    final MinHashLshIndex index = MinHashLshIndex.forThreshold(128, 0.5);
+
+    assertTrue(index.getBands() * index.getRows() <= 128);
+
+    for (int[] signature : minHash.signatures(DOCUMENTS)) {
+      index.add(signature);
+    }
+
+    assertEquals(DOCUMENTS.size(), index.size());
+
+    final List<MinHashLshIndex.Candidate> pairs = index.candidatePairs(0.5);
+
+    assertEquals(2, pairs.size());
+
+    for (MinHashLshIndex.Candidate pair : pairs) {
+      assertTrue(pair.getFirst() < pair.getSecond());
+      assertTrue(pair.getSimilarity() >= 0.5);
+      assertTrue((pair.getFirst() == 0 && pair.getSecond() == 2)
+          || (pair.getFirst() == 1 && pair.getSecond() == 4));
+    }
+  }
+
+  @Test
+  public void testQuery() {
+    final MinHash minHash = new MinHash(64, 4, 3L);
+    final MinHashLshIndex index = new MinHashLshIndex(16, 4);
+
+    DOCUMENTS.forEach(document -> index.add(minHash.signature(document)));
+
+    final List<Integer> matches = index.query(
+        minHash.signature("organic cotton T-shirt, crew neck, available in five colours."),
+        0.7);
+
+    assertEquals(ImmutableList.of(3), matches);
+  }
+
+  @Test
+  public void testReusedBuffer() {
+    final MinHash minHash = new MinHash(100, 4, 11L);
+    final MinHashLshIndex index = new MinHashLshIndex(20, 4);
+    final int[] buffer = new int[100];
+
+    for (String document : DOCUMENTS) {
+      minHash.signature(document, buffer);
+      index.add(buffer);
+    }
+
+    assertEquals(80, index.getSignature(0).length);
+    assertArrayEquals(
+        Arrays.copyOf(minHash.signature(DOCUMENTS.get(0)), 80),
+        index.getSignature(0));
+    assertEquals(ImmutableList.of(3), index.query(minHash.signature(DOCUMENTS.get(3)), 0.9));
+  }
+
+  @Test
+  public void testEmptySignaturesAreNeverCandidates() {
+    final MinHash minHash = new MinHash(64, 4, 5L);
+    final MinHashLshIndex index = new MinHashLshIndex(16, 4);
+
+    for (int copy = 0; copy < 1000; copy++) {
+      index.add(minHash.signature(copy % 2 == 0 ? "" : " -- "));
+    }
+
+    index.add(minHash.signature(DOCUMENTS.get(0)));
+    index.add(minHash.signature(DOCUMENTS.get(0)));
+
+    assertEquals(1002, index.size());
+    assertTrue(index.query(minHash.signature(""), 0.0).isEmpty());
+
+    final List<MinHashLshIndex.Candidate> pairs = index.candidatePairs(0.0);
+
+    // Identical signatures share all 16 bands but are reported once
+    assertEquals(1, pairs.size());
+    assertEquals(1000, pairs.get(0).getFirst());
+    assertEquals(1001, pairs.get(0).getSecond());
+    assertEquals(1.0, pairs.get(0).getSimilarity(), 0.0);
+    assertEquals(ImmutableList.of(1000, 1001),
+        index.query(minHash.signature(DOCUMENTS.get(0)), 1.0));
+  }
+}
@@ -0,0 +1,130 @@
+package org.granite.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.Test;
+
+public class PagingCursorTest {
+
+  private static Iterator<Integer> counting(final int size, final AtomicInteger reads) {
+    return IntStream.range(0, size).peek(value -> reads.incrementAndGet()).iterator();
+  }
+
+  @Test
+  public void testReadsOnlyRequestedPages() {
+    final AtomicInteger reads = new AtomicInteger();
+    final PagingCursor<Integer> cursor = new PagingCursor<>(counting(1000, reads), 10);
+
+    assertEquals(ImmutableList.of(20, 21, 22, 23, 24, 25, 26, 27, 28, 29), cursor.getPage(3));
+    assertEquals(3, cursor.getPagesRead());
+    assertTrue(reads.get() <= 31);
+
+    final List<Integer> first = cursor.getPage(1);
+
+    assertEquals(0, (int) first.get(0));
+    assertSame(first, cursor.getPage(0));
+    assertEquals(3, cursor.getPagesRead());
+    assertFalse(cursor.isExhausted());
+  }
+
+  @Test
+  public void testPastTheEnd() {
+    final PagingCursor<Integer> cursor =
+        new PagingCursor<>(IntStream.range(0, 25).spliterator(), 10);
+
+    assertTrue(cursor.hasPage(3));
+    assertFalse(cursor.hasPage(4));
+    assertFalse(cursor.hasPage(0));
+    assertTrue(cursor.isExhausted());
+    assertEquals(ImmutableList.of(20, 21, 22, 23, 24), cursor.getPage(7));
+
+    final PagingCursor<Integer> exact = new PagingCursor<>(IntStream.range(0, 20).iterator(), 10);
+
+    assertEquals(10, exact.getPage(2).size());
+    assertTrue(exact.isExhausted());
+    assertEquals(2, exact.getPagesRead());
+
+    final PagingCursor<Integer> empty = new PagingCursor<>(IntStream.empty().iterator(), 10);
+
+    assertTrue(empty.getPage(1).isEmpty());
+    assertFalse(empty.hasPage(1));
+  }
+
+  @Test
+  public void testLimitOffset() {
+    final AtomicInteger reads = new AtomicInteger();
+    final PagingCursor<Integer> cursor = new PagingCursor<>(counting(100, reads), 10);
+
+    assertEquals(ImmutableList.of(18, 19, 20, 21), cursor.getLimitOffset(4, 18));
+    assertEquals(3, cursor.getPagesRead());
+    assertEquals(ImmutableList.of(98, 99), cursor.getLimitOffset(5, 98));
+    assertTrue(cursor.getLimitOffset(5, 100).isEmpty());
+    assertTrue(cursor.getLimitOffset(0, 5).isEmpty());
+    assertTrue(cursor.getLimitOffset(5, -1).isEmpty());
+    assertEquals(100, reads.get());
+  }
+
+  @Test
+  public void testLimitOffsetToTheEnd() {
+    final PagingCursor<Integer> single = new PagingCursor<>(IntStream.range(0, 20).iterator(), 1);
+
+    assertEquals(15, single.getLimitOffset(Integer.MAX_VALUE, 5).size());
+    assertEquals(5, (int) single.getLimitOffset(Integer.MAX_VALUE, 5).get(0));
+
+    final PagingCursor<Integer> partial =
+        new PagingCursor<>(IntStream.range(0, 25).iterator(), 10);
+
+    assertEquals(ImmutableList.of(23, 24), partial.getLimitOffset(Integer.MAX_VALUE, 23));
+    assertTrue(partial.getLimitOffset(5, 27).isEmpty());
+  }
+
+  @Test
+  public void testPrefetch() throws Exception {
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    try {
+      final AtomicInteger reads = new AtomicInteger();
+      final PagingCursor<Integer> cursor =
+          new PagingCursor<>(counting(35, reads), 10, executor);
+
+      assertEquals(0, (int) cursor.getPage(1).get(0));
+
+      // The second page is read in the background
+      executor.submit(() -> { }).get();
+
+      assertTrue(reads.get() >= 20);
+      assertEquals(1, cursor.getPagesRead());
+      assertEquals(10, (int) cursor.getPage(2).get(0));
+      assertEquals(ImmutableList.of(30, 31, 32, 33, 34), cursor.getPage(4));
+      assertTrue(cursor.isExhausted());
+      assertEquals(35, reads.get());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testPrefetchFailure() {
+    final Iterator<Integer> failing = IntStream.range(0, 30)
+        .peek(value -> {
+          if (value == 15) {
+            throw new IllegalStateException("read failed");
+          }
+        })
+        .iterator();
+    final PagingCursor<Integer> cursor = new PagingCursor<>(failing, 10, Runnable::run);
+
+    cursor.getPage(1);
+    cursor.getPage(2);
+  }
+}
@@ -0,0 +1,113 @@
+package org.granite.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.Test;
+
+public class SamplingToolsTest {
+
+  @Test
+  public void testPick() {
+    assertNull(SamplingTools.pick(ImmutableList.of()));
+    assertNull(SamplingTools.pick(new LinkedList<>()));
+    assertNull(SamplingTools.pick((Iterable<String>) new HashSet<String>()));
+    assertEquals("a", SamplingTools.pick(ImmutableList.of("a")));
+
+    final SplittableRandom random = new SplittableRandom(31);
+    final int[] counts = new int[10];
+    final List<Integer> values = new LinkedList<>();
+
+    for (int index = 0; index < 10; index++) {
+      values.add(index);
+    }
+
+    for (int draw = 0; draw < 20000; draw++) {
+      counts[SamplingTools.pick((Iterable<Integer>) values, random)]++;
+    }
+
+    for (int count : counts) {
+      assertTrue(count > 1700 && count < 2300);
+    }
+  }
+
+  @Test
+  public void testSampleIsUniform() {
+    final SplittableRandom random = new SplittableRandom(37);
+    final int[] counts = new int[100];
+
+    for (int trial = 0; trial < 5000; trial++) {
+      final List<Integer> sample =
+          SamplingTools.sample(IntStream.range(0, 100).boxed(), 10, random);
+
+      assertEquals(10, sample.size());
+      assertEquals(10, new HashSet<>(sample).size());
+
+      for (int value : sample) {
+        counts[value]++;
+      }
+    }
+
+    // Each value is expected 500 times
+    for (int count : counts) {
+      assertTrue(String.valueOf(count), count > 400 && count < 600);
+    }
+  }
+
+  @Test
+  public void testSampleShortSource() {
+    assertEquals(ImmutableList.of(1, 2, 3), SamplingTools.sample(ImmutableList.of(1, 2, 3), 5));
+    assertTrue(SamplingTools.sample(Stream.empty(), 5).isEmpty());
+    assertEquals(1000, SamplingTools.sample(
+        () -> IntStream.range(0, 1000000).iterator(), 1000).size());
+  }
+
+  @Test
+  public void testWeightedSample() {
+    final SplittableRandom random = new SplittableRandom(41);
+    final List<String> values = ImmutableList.of("heavy", "light", "medium", "never");
+    final int[] firsts = new int[3];
+
+    for (int trial = 0; trial < 10000; trial++) {
+      final List<String> sample =
+          SamplingTools.weightedSample(values, SamplingToolsTest::weight, 3, random);
+
+      assertEquals(3, sample.size());
+      assertFalse(sample.contains("never"));
+
+      firsts[(int) weight(sample.get(0)) / 2 - 1]++;
+    }
+
+    // The first element is a weighted draw: 6 / 12, 2 / 12 and 4 / 12
+    assertEquals(5000, firsts[2], 250);
+    assertEquals(1667, firsts[0], 200);
+    assertEquals(3333, firsts[1], 250);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeWeight() {
+    SamplingTools.weightedSample(ImmutableList.of("a"), value -> -1.0, 1);
+  }
+
+  private static double weight(final String value) {
+    switch (value) {
+      case "heavy":
+        return 6.0;
+      case "medium":
+        return 4.0;
+      case "light":
+        return 2.0;
+      default:
+        return 0.0;
+    }
+  }
+}
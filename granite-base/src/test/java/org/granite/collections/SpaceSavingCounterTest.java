@@ -0,0 +1,169 @@
+package org.granite.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import org.junit.Test;
+
+public class SpaceSavingCounterTest {
+
+  @Test
+  public void testExactUnderCapacity() {
+    final SpaceSavingCounter counter = new SpaceSavingCounter(10);
+
+    counter.add("a", 3L);
+    counter.add("b");
+    counter.add("c", 7L);
+    counter.add("a");
+
+    assertEquals(3, counter.size());
+    assertEquals(0L, counter.getMaxError());
+    assertEquals(12L, counter.getTotalCount());
+    assertEquals(4L, counter.getCount("a"));
+    assertEquals(0L, counter.getCount("d"));
+
+    final List<SpaceSavingCounter.HeavyHitter> top = counter.topN(2);
+
+    assertEquals(2, top.size());
+    assertEquals("c", top.get(0).getItem());
+    assertEquals(7L, top.get(0).getCount());
+    assertEquals("a", top.get(1).getItem());
+    assertEquals(0L, top.get(1).getError());
+  }
+
+  @Test
+  public void testEviction() {
+    final SpaceSavingCounter counter = new SpaceSavingCounter(2);
+
+    counter.add("a", 5L);
+    counter.add("b", 2L);
+    counter.add("c");
+
+    assertEquals(2, counter.size());
+    assertEquals(0L, counter.getCount("b"));
+    assertEquals(3L, counter.getCount("c"));
+    assertEquals(3L, counter.getMaxError());
+
+    final SpaceSavingCounter.HeavyHitter hitter = counter.topN(2).get(1);
+
+    assertEquals("c", hitter.getItem());
+    assertEquals(2L, hitter.getError());
+    assertEquals(1L, hitter.getGuaranteedCount());
+  }
+
+  @Test
+  public void testHeavyHittersFound() {
+    final SplittableRandom random = new SplittableRandom(29);
+    final SpaceSavingCounter counter = SpaceSavingCounter.forErrorBound(0.01);
+    final Map<String, Long> expected = new HashMap<>();
+
+    assertEquals(100, counter.getCapacity());
+
+    for (int index = 0; index < 50000; index++) {
+      final String item = random.nextInt(4) == 0
+          ? "hot" + random.nextInt(10)
+          : "cold" + random.nextInt(20000);
+
+      counter.add(item);
+      expected.merge(item, 1L, Long::sum);
+    }
+
+    final long bound = counter.getTotalCount() / counter.getCapacity();
+
+    for (Map.Entry<String, Long> entry : expected.entrySet()) {
+      final long count = counter.getCount(entry.getKey());
+
+      if (entry.getValue() > bound) {
+        assertTrue(entry.getKey(), count >= entry.getValue());
+      }
+    }
+
+    for (SpaceSavingCounter.HeavyHitter hitter : counter.topN(10)) {
+      final long actual = expected.get(hitter.getItem());
+
+      assertTrue(hitter.getItem().startsWith("hot"));
+      assertTrue(hitter.getCount() >= actual);
+      assertTrue(hitter.getGuaranteedCount() <= actual);
+      assertTrue(hitter.getError() <= bound);
+    }
+  }
+
+  @Test
+  public void testMergeAndSerialize() {
+    final SpaceSavingCounter first = new SpaceSavingCounter(3);
+    final SpaceSavingCounter second = new SpaceSavingCounter(3);
+
+    first.add("a", 10L);
+    first.add("b", 4L);
+    first.add("\u00e9t\u00e9", 2L);
+    first.add("c", 1L);
+    second.add("a", 5L);
+    second.add("d", 8L);
+
+    final SpaceSavingCounter copy = SpaceSavingCounter.fromByteArray(first.toByteArray());
+
+    assertEquals(first.getTotalCount(), copy.getTotalCount());
+    assertEquals(first.getCount("c"), copy.getCount("c"));
+    assertEquals(first.getMaxError(), copy.getMaxError());
+
+    copy.merge(second);
+
+    assertEquals(30L, copy.getTotalCount());
+    assertEquals(15L, copy.getCount("a"));
+    assertEquals(8L + 3L, copy.getCount("d"));
+    assertEquals(4L, copy.getCount("b"));
+    assertEquals(3, copy.size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTruncated() {
+    final SpaceSavingCounter counter = new SpaceSavingCounter(4);
+
+    counter.add("abc");
+
+    final byte[] bytes = counter.toByteArray();
+
+    SpaceSavingCounter.fromByteArray(Arrays.copyOf(bytes, bytes.length - 1));
+  }
+
+  @Test
+  public void testCorruptSizes() {
+    final SpaceSavingCounter counter = new SpaceSavingCounter(4);
+
+    counter.add("abc");
+    counter.add("de");
+
+    final byte[] bytes = counter.toByteArray();
+
+    // Capacity, item count and the first item's length, in that order
+    for (int[] corruption : new int[][]{{4, 1}, {16, Integer.MAX_VALUE}, {36, 1 << 30}}) {
+      final byte[] corrupt = bytes.clone();
+
+      ByteBuffer.wrap(corrupt).putInt(corruption[0], corruption[1]);
+
+      try {
+        SpaceSavingCounter.fromByteArray(corrupt);
+        fail(Arrays.toString(corruption));
+      } catch (IllegalArgumentException expected) {
+        // expected
+      }
+    }
+
+    // A large capacity is only allocated as it fills
+    final SpaceSavingCounter large = SpaceSavingCounter.forErrorBound(1e-9);
+
+    large.add("abc");
+
+    final SpaceSavingCounter copy = SpaceSavingCounter.fromByteArray(large.toByteArray());
+
+    assertEquals(large.getCapacity(), copy.getCapacity());
+    assertEquals(1L, copy.getCount("abc"));
+  }
+}
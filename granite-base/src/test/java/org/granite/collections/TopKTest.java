@@ -0,0 +1,101 @@
+package org.granite.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+import org.junit.Test;
+
+public class TopKTest {
+
+  @Test
+  public void testOffer() {
+    final TopK<Integer> topK = TopK.greatest(3);
+
+    assertNull(topK.peekLowest());
+    assertTrue(topK.offerAll(Arrays.asList(5, 1, 9, 7)));
+    assertEquals(3, topK.size());
+    assertEquals(Integer.valueOf(5), topK.peekLowest());
+    assertFalse(topK.offer(5));
+    assertFalse(topK.offer(2));
+    assertTrue(topK.offer(8));
+    assertEquals(Arrays.asList(9, 8, 7), topK.toSortedList());
+    assertEquals(Arrays.asList(9, 8, 7), topK.drainSorted());
+    assertTrue(topK.isEmpty());
+    assertEquals(Collections.emptyList(), topK.drainSorted());
+  }
+
+  @Test
+  public void testKeepsEqualElements() {
+    final TopK<String> topK = new TopK<>(4, Comparator.comparing(String::length));
+
+    topK.offerAll(Arrays.asList("aa", "bb", "c", "cc", "dd", "eee"));
+
+    final List<String> result = topK.drainSorted();
+
+    assertEquals(4, result.size());
+    assertEquals("eee", result.get(0));
+    assertTrue(result.subList(1, 4).stream().allMatch(value -> value.length() == 2));
+  }
+
+  @Test
+  public void testMatchesSort() {
+    final SplittableRandom random = new SplittableRandom(5);
+
+    for (int round = 0; round < 50; round++) {
+      final int k = 1 + random.nextInt(40);
+      final List<Integer> values = new ArrayList<>();
+      final int count = random.nextInt(500);
+      final TopK<Integer> least = TopK.least(k);
+
+      for (int index = 0; index < count; index++) {
+        final int value = random.nextInt(100);
+        values.add(value);
+        least.offer(value);
+      }
+
+      Collections.sort(values);
+
+      assertEquals(values.subList(0, Math.min(k, values.size())), least.drainSorted());
+    }
+  }
+
+  @Test
+  public void testCollector() {
+    final List<Integer> result = IntStream.range(0, 100000)
+        .parallel()
+        .map(value -> (value * 7919) % 100000)
+        .boxed()
+        .collect(TopK.collector(5, Comparator.<Integer>naturalOrder()));
+
+    assertEquals(Arrays.asList(99999, 99998, 99997, 99996, 99995), result);
+
+    final List<String> words = Arrays.asList("pear", "fig", "banana", "kiwi", "apple")
+        .stream()
+        .collect(TopK.collector(2, Comparator.comparing(String::length)));
+
+    assertEquals(Arrays.asList("banana", "apple"), words);
+    assertEquals(Collections.emptyList(),
+        IntStream.range(0, 0).boxed().collect(TopK.collector(3, Comparator.naturalOrder())));
+  }
+
+  @Test
+  public void testMerge() {
+    final TopK<Integer> first = TopK.greatest(3);
+    final TopK<Integer> second = TopK.greatest(3);
+
+    first.offerAll(Arrays.asList(1, 4, 6));
+    second.offerAll(Arrays.asList(2, 5, 7));
+
+    assertEquals(Arrays.asList(7, 6, 5), first.merge(second).drainSorted());
+    assertEquals(Arrays.asList(7, 5, 2), second.toSortedList());
+  }
+}
@@ -0,0 +1,109 @@
+package org.granite.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import org.granite.base.UUIDTools;
+import org.junit.Test;
+
+public class UUIDHashMapTest {
+
+  private static final UUID NIL = new UUID(0L, 0L);
+
+  @Test
+  public void testPutGetRemove() {
+    final UUIDHashMap<String> map = new UUIDHashMap<>();
+    final UUID key = UUID.fromString("09e328ab-087d-443f-a55a-804bedf3c334");
+
+    assertNull(map.put(key, "first"));
+    assertEquals("first", map.put(key, "second"));
+    assertNull(map.put(NIL, "nil"));
+    assertNull(map.put(new UUID(5L, 5L), null));
+
+    assertEquals(3, map.size());
+    assertEquals("second", map.get(key));
+    assertEquals("second", map.get(key.getMostSignificantBits(), key.getLeastSignificantBits()));
+    assertEquals("nil", map.get(NIL));
+    assertTrue(map.containsKey(new UUID(5L, 5L)));
+    assertNull(map.get(new UUID(5L, 5L)));
+    assertNull(map.get("not a uuid"));
+
+    assertEquals("nil", map.remove(NIL));
+    assertFalse(map.containsKey(NIL));
+    assertEquals("second", map.remove(key));
+    assertEquals(1, map.size());
+  }
+
+  @Test
+  public void testMatchesHashMap() {
+    final SplittableRandom random = new SplittableRandom(3);
+    final UUIDHashMap<Integer> map = new UUIDHashMap<>(2);
+    final Map<UUID, Integer> expected = new HashMap<>();
+
+    for (int operation = 0; operation < 50000; operation++) {
+      final UUID key = random.nextInt(200) == 0 ? NIL
+          : new UUID(random.nextInt(3), random.nextInt(400));
+
+      if (random.nextInt(3) == 0) {
+        assertEquals(expected.remove(key), map.remove(key));
+      } else {
+        assertEquals(expected.put(key, operation), map.put(key, operation));
+      }
+    }
+
+    assertEquals(expected, map);
+    assertEquals(map, expected);
+    assertEquals(expected.keySet(), map.keySet());
+  }
+
+  @Test
+  public void testEntries() {
+    final UUIDHashMap<Integer> map = new UUIDHashMap<>();
+
+    for (int index = 0; index < 1000; index++) {
+      map.put(new UUID(index, index * 7L), index);
+    }
+
+    for (Entry<UUID, Integer> entry : map.entrySet()) {
+      entry.setValue(entry.getValue() * 2);
+    }
+
+    assertEquals(Integer.valueOf(84), map.get(new UUID(42L, 294L)));
+
+    final Iterator<Entry<UUID, Integer>> iterator = map.entrySet().iterator();
+
+    while (iterator.hasNext()) {
+      if (iterator.next().getValue() % 4 == 0) {
+        iterator.remove();
+      }
+    }
+
+    assertEquals(500, map.size());
+    assertTrue(map.values().stream().allMatch(value -> value % 4 == 2));
+
+    map.keySet().removeIf(uuid -> uuid.getMostSignificantBits() < 100);
+
+    assertEquals(450, map.size());
+  }
+
+  @Test
+  public void testByteCodec() {
+    final UUID key = new UUID(123L, 456L);
+    final byte[] buffer = new byte[20];
+    final UUIDHashMap<String> map = new UUIDHashMap<>();
+
+    UUIDTools.writeUuid(key, buffer, 4);
+
+    assertNull(map.put(buffer, 4, "value"));
+    assertEquals("value", map.get(key));
+    assertEquals("value", map.get(buffer, 4));
+  }
+}
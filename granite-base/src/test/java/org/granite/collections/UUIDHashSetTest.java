@@ -0,0 +1,130 @@
+package org.granite.collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import org.granite.base.UUIDTools;
+import org.junit.Test;
+
+public class UUIDHashSetTest {
+
+  private static final UUID NIL = new UUID(0L, 0L);
+
+  @Test
+  public void testAddContainsRemove() {
+    final UUIDHashSet set = new UUIDHashSet();
+    final UUID first = UUID.fromString("09e328ab-087d-443f-a55a-804bedf3c334");
+
+    assertTrue(set.add(first));
+    assertFalse(set.add(first));
+    assertTrue(set.add(NIL));
+    assertEquals(2, set.size());
+
+    assertTrue(set.contains(first));
+    assertTrue(set.contains(first.getMostSignificantBits(), first.getLeastSignificantBits()));
+    assertTrue(set.contains(NIL));
+    assertFalse(set.contains("09e328ab-087d-443f-a55a-804bedf3c334"));
+    assertFalse(set.contains(new UUID(1L, 0L)));
+
+    assertTrue(set.remove(NIL));
+    assertFalse(set.contains(NIL));
+    assertTrue(set.remove(first));
+    assertFalse(set.remove(first));
+    assertTrue(set.isEmpty());
+  }
+
+  @Test
+  public void testMatchesHashSet() {
+    final SplittableRandom random = new SplittableRandom(7);
+    final UUIDHashSet set = new UUIDHashSet(4);
+    final Set<UUID> expected = new HashSet<>();
+
+    for (int operation = 0; operation < 50000; operation++) {
+      // A small key space so that adds and removes keep hitting the same probe runs
+      final UUID uuid = random.nextInt(200) == 0 ? NIL
+          : new UUID(random.nextInt(400), random.nextInt(3) - 1L);
+
+      if (random.nextInt(3) == 0) {
+        assertEquals(expected.remove(uuid), set.remove(uuid));
+      } else {
+        assertEquals(expected.add(uuid), set.add(uuid));
+      }
+
+      assertEquals(expected.size(), set.size());
+    }
+
+    assertEquals(expected, set);
+    assertEquals(set, expected);
+    assertEquals(expected.hashCode(), set.hashCode());
+  }
+
+  @Test
+  public void testIteratorRemove() {
+    final SplittableRandom random = new SplittableRandom(11);
+
+    for (int round = 0; round < 200; round++) {
+      final UUIDHashSet set = new UUIDHashSet(random.nextInt(64));
+      final Set<UUID> expected = new HashSet<>();
+
+      for (int index = 0; index < 300; index++) {
+        final UUID uuid = new UUID(random.nextLong(), random.nextLong());
+        set.add(uuid);
+        expected.add(uuid);
+      }
+
+      set.add(NIL);
+      expected.add(NIL);
+
+      final Set<UUID> seen = new HashSet<>();
+      final Iterator<UUID> iterator = set.iterator();
+
+      while (iterator.hasNext()) {
+        final UUID next = iterator.next();
+
+        assertTrue(seen.add(next));
+
+        if (random.nextBoolean()) {
+          iterator.remove();
+          expected.remove(next);
+        }
+      }
+
+      assertEquals(301, seen.size());
+      assertEquals(expected, set);
+    }
+  }
+
+  @Test
+  public void testByteCodec() {
+    final UUID[] uuids = new UUID[50];
+
+    for (int index = 0; index < uuids.length; index++) {
+      uuids[index] = new UUID(index, -index);
+    }
+
+    final byte[] packed = UUIDTools.uuidsToByteArray(uuids);
+    final UUIDHashSet set = new UUIDHashSet();
+
+    assertTrue(set.addAll(packed, 0, uuids.length));
+    assertFalse(set.addAll(packed, 0, uuids.length));
+    assertEquals(50, set.size());
+    assertTrue(set.contains(packed, 16 * 17));
+    assertFalse(set.add(packed, 16 * 17));
+
+    final Set<UUID> decoded = new HashSet<>();
+
+    for (UUID uuid : UUIDTools.byteArrayToUUIDs(set.toByteArray())) {
+      decoded.add(uuid);
+    }
+
+    assertEquals(set, decoded);
+    assertArrayEquals(new byte[0], new UUIDHashSet().toByteArray());
+  }
+}
@@ -0,0 +1,114 @@
+package org.granite.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import org.granite.base.StringPool;
+import org.junit.Test;
+
+public class DelimitedRecordParserTest {
+
+  private static List<List<String>> parse(final String text, final boolean trimResults) {
+    final List<List<String>> result = new ArrayList<>();
+
+    new DelimitedRecordParser(',', '"', trimResults)
+        .parse(new StringReader(text), record -> result.add(record.toList()));
+
+    return result;
+  }
+
+  @Test
+  public void testSimpleRecords() {
+    final List<List<String>> records = parse("a,b,c\n1,2,3\n", false);
+
+    assertEquals(2, records.size());
+    assertEquals(ImmutableList.of("a", "b", "c"), records.get(0));
+    assertEquals(ImmutableList.of("1", "2", "3"), records.get(1));
+  }
+
+  @Test
+  public void testEmptyFieldsAndBlankLines() {
+    final List<List<String>> records = parse("a,,\n\n\r\n,\nlast", false);
+
+    assertEquals(3, records.size());
+    assertEquals(ImmutableList.of("a", "", ""), records.get(0));
+    assertEquals(ImmutableList.of("", ""), records.get(1));
+    assertEquals(ImmutableList.of("last"), records.get(2));
+  }
+
+  @Test
+  public void testQualifiedFields() {
+    final List<List<String>> records = parse(
+        "\"hello, world\",\"say \"\"hi\"\"\",\"multi\r\nline\"\r\nnext,\"\"\r\n",
+        false);
+
+    assertEquals(2, records.size());
+    assertEquals(ImmutableList.of("hello, world", "say \"hi\"", "multi\r\nline"),
+        records.get(0));
+    assertEquals(ImmutableList.of("next", ""), records.get(1));
+  }
+
+  @Test
+  public void testTrimResults() {
+    final List<List<String>> records = parse("  a  , \" b \" ,c\t\n", true);
+
+    assertEquals(1, records.size());
+    assertEquals(ImmutableList.of("a", " b ", "c"), records.get(0));
+
+    assertEquals(ImmutableList.of("  a  ", " \" b \" ", "c\t"),
+        parse("  a  , \" b \" ,c\t\n", false).get(0));
+  }
+
+  @Test
+  public void testRecordReuse() {
+    final List<DelimitedRecord> seen = new ArrayList<>();
+    final List<String> firstFields = new ArrayList<>();
+
+    final long count = new DelimitedRecordParser('|', '\'', false)
+        .parse("x|'y|z'\nlonger value|2\n", record -> {
+          seen.add(record);
+          firstFields.add(record.getField(0).toString());
+
+          assertEquals(record.getRecordNumber() == 1 ? "y|z" : "2",
+              record.getField(1).toString());
+          assertTrue(record.fieldEquals(0, firstFields.get(firstFields.size() - 1)));
+        });
+
+    assertEquals(2, count);
+    assertSame(seen.get(0), seen.get(1));
+    assertEquals(ImmutableList.of("x", "longer value"), firstFields);
+  }
+
+  @Test
+  public void testCharArrayInput() {
+    final char[] buffer = "ignored\na,b\nc".toCharArray();
+    final List<List<String>> records = new ArrayList<>();
+
+    new DelimitedRecordParser(',', '"', false)
+        .parse(buffer, 8, buffer.length - 8, record -> records.add(record.toList()));
+
+    assertEquals(ImmutableList.of(ImmutableList.of("a", "b"), ImmutableList.of("c")), records);
+  }
+
+  @Test
+  public void testPooledFields() {
+    final StringPool pool = StringPool.striped(64, 1);
+    final List<String> countries = new ArrayList<>();
+
+    new DelimitedRecordParser(',', '"', true)
+        .parse("1,US\n2,CA\n3, US\n", record -> countries.add(record.getFieldString(1, pool)));
+
+    assertEquals(ImmutableList.of("US", "CA", "US"), countries);
+    assertSame(countries.get(0), countries.get(2));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testUnmatchedQualifier() {
+    parse("a,\"b\nc", false);
+  }
+}
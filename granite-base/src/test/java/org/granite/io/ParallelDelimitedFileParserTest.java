@@ -0,0 +1,130 @@
+package org.granite.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelDelimitedFileParserTest {
+
+  private File testFile;
+  private String contents;
+  private ForkJoinPool pool;
+
+  @Before
+  public void setUp() throws IOException {
+    final StringBuilder builder = new StringBuilder();
+
+    for (int index = 0; index < 500; index++) {
+      builder.append(index).append(",plain ").append(index).append(",\"quoted\n")
+          .append(index % 3 == 0 ? "with \"\"escapes\"\"" : "value")
+          .append("\"\r\n");
+    }
+
+    contents = builder.toString();
+
+    testFile = File.createTempFile("parallel-parser", ".csv");
+    Files.write(testFile.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+
+    pool = new ForkJoinPool(4);
+  }
+
+  @After
+  public void tearDown() {
+    pool.shutdownNow();
+    testFile.delete();
+  }
+
+  private ParallelDelimitedFileParser createParser() {
+    return new ParallelDelimitedFileParser(',', '"', false, StandardCharsets.UTF_8, pool, 64);
+  }
+
+  private List<String> sequential() {
+    final List<String> result = new ArrayList<>();
+
+    new DelimitedRecordParser(',', '"', false)
+        .parse(new StringReader(contents), record -> result.add(record.toString()));
+
+    return result;
+  }
+
+  @Test
+  public void testBoundariesAreRecordAligned() throws IOException {
+    try (FileChannel channel = FileChannel.open(testFile.toPath(), StandardOpenOption.READ)) {
+      final long[] boundaries = createParser().findRecordBoundaries(channel);
+
+      assertEquals(17, boundaries.length);
+
+      for (long boundary : boundaries) {
+        if (boundary > 0 && boundary < contents.length()) {
+          assertEquals('\n', contents.charAt((int) boundary - 1));
+          assertEquals('\r', contents.charAt((int) boundary - 2));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testOrdered() {
+    final List<String> result = new ArrayList<>();
+
+    final long count = createParser()
+        .parse(testFile.getPath(), DelimitedRecord::toString, result::add, true);
+
+    assertEquals(500, count);
+    assertEquals(sequential(), result);
+  }
+
+  @Test
+  public void testOrderedParsesAWindowAhead() {
+    final AtomicInteger mapped = new AtomicInteger();
+    final int[] consumed = new int[1];
+    final int[] maxAhead = new int[1];
+
+    final long count = createParser()
+        .parse(testFile.getPath(),
+            record -> mapped.incrementAndGet(),
+            value -> maxAhead[0] = Math.max(maxAhead[0], mapped.get() - ++consumed[0]),
+            true);
+
+    // 16 ranges in flight of at most a few records each, out of 500 records in total
+    assertEquals(500, count);
+    assertEquals(500, consumed[0]);
+    assertTrue(String.valueOf(maxAhead[0]), maxAhead[0] < 100);
+  }
+
+  @Test
+  public void testUnordered() {
+    final ConcurrentLinkedQueue<String> result = new ConcurrentLinkedQueue<>();
+
+    final long count = createParser()
+        .parse(testFile.getPath(),
+            record -> record.fieldEquals(1, "plain 7") ? null : record.toString(),
+            result::add,
+            false);
+
+    assertEquals(500, count);
+    assertEquals(499, result.size());
+
+    final Set<String> expected = new HashSet<>(sequential());
+    expected.remove("[7, plain 7, quoted\nvalue]");
+
+    assertEquals(expected, new HashSet<>(result));
+  }
+}
@@ -0,0 +1,62 @@
+package org.granite.math;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import java.util.Arrays;
+import org.junit.Test;
+
+public class MinHashTest {
+
+  private static final String DESCRIPTION =
+      "Stainless steel water bottle, 750ml, keeps drinks cold for 24 hours";
+
+  @Test
+  public void testSignature() {
+    final MinHash minHash = new MinHash(128, 4, 17L);
+
+    final int[] signature = minHash.signature(DESCRIPTION);
+
+    assertEquals(128, signature.length);
+    assertArrayEquals(signature, minHash.signature(DESCRIPTION.toUpperCase() + "!!"));
+    assertArrayEquals(signature, new MinHash(128, 4, 17L).signature(DESCRIPTION));
+
+    final int[] empty = minHash.signature(" 123 ");
+    assertTrue(Arrays.stream(empty).allMatch(hash -> hash == Integer.MAX_VALUE));
+  }
+
+  @Test
+  public void testSimilarityEstimate() {
+    final MinHash minHash = new MinHash(256, 3, 5L);
+
+    final int[] original = minHash.signature(DESCRIPTION);
+    final int[] nearDuplicate = minHash.signature(DESCRIPTION.replace("24", "12"));
+    final int[] unrelated = minHash.signature("Wireless noise cancelling headphones in black");
+
+    assertTrue(MinHash.estimateSimilarity(original, nearDuplicate) > 0.8);
+    assertTrue(MinHash.estimateSimilarity(original, unrelated) < 0.2);
+    assertEquals(1.0, MinHash.estimateSimilarity(original, original), 0.0);
+
+    final int[] longer = Arrays.copyOf(nearDuplicate, 300);
+
+    assertEquals(
+        MinHash.estimateSimilarity(Arrays.copyOf(original, 100), Arrays.copyOf(longer, 100)),
+        MinHash.estimateSimilarity(original, longer, 100),
+        0.0);
+    assertEquals(0.0, MinHash.estimateSimilarity(original, longer, 0), 0.0);
+  }
+
+  @Test
+  public void testParallelSignatures() {
+    final MinHash minHash = new MinHash(64, 5, 1L);
+    final ImmutableList<String> texts = ImmutableList.of(DESCRIPTION, "ab", "another text");
+
+    final int[][] signatures = minHash.signatures(texts);
+
+    for (int index = 0; index < texts.size(); index++) {
+      assertArrayEquals(minHash.signature(texts.get(index)), signatures[index]);
+    }
+  }
+}